@@ -0,0 +1,82 @@
+package com.telekom.training.day1.legacyadapter;
+
+import com.telekom.training.day1.legacyadapter.initial.LegacyBillingException;
+import com.telekom.training.day1.legacyadapter.initial.LegacyBillingSystem;
+import com.telekom.training.day1.legacyadapter.initial.OldInvoiceRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy billing lookups behind the LegacyBillingAdapter: customer search with and without a
+ * date range, and the invoice ID lookups used by payments and status reports.
+ * 1000 customers with invoices spread over two years.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LegacyBillingLookupBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long START_MILLIS = 19_000 * DAY_MILLIS;
+
+    @Param({"10000", "100000"})
+    private int invoices;
+
+    private LegacyBillingSystem legacySystem;
+    private String[] invoiceIds;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws LegacyBillingException {
+        legacySystem = new LegacyBillingSystem();
+        invoiceIds = new String[invoices];
+        Random data = new Random(42);
+        for (int i = 0; i < invoices; i++) {
+            Date billDate = new Date(START_MILLIS + data.nextInt(730) * DAY_MILLIS);
+            OldInvoiceRecord record = legacySystem.createBillForCustomer(customer(data.nextInt(CUSTOMERS)),
+                10 + data.nextInt(100), billDate, "MONTHLY", "DD", 14);
+            invoiceIds[i] = record.invoiceId;
+        }
+        random = new Random(7);
+    }
+
+    @Benchmark
+    public List<OldInvoiceRecord> findAllForCustomer() {
+        return legacySystem.findInvoicesForCustomer(customer(random.nextInt(CUSTOMERS)), null, null, "ALL");
+    }
+
+    @Benchmark
+    public List<OldInvoiceRecord> findOneMonthForCustomer() {
+        Date from = new Date(START_MILLIS + random.nextInt(700) * DAY_MILLIS);
+        Date to = new Date(from.getTime() + 30 * DAY_MILLIS);
+        return legacySystem.findInvoicesForCustomer(customer(random.nextInt(CUSTOMERS)), from, to, "PENDING");
+    }
+
+    @Benchmark
+    public String statusReportById() {
+        return legacySystem.getInvoiceStatusReport(invoiceIds[random.nextInt(invoiceIds.length)]);
+    }
+
+    private static String customer(int index) {
+        return "CUST-" + index;
+    }
+}
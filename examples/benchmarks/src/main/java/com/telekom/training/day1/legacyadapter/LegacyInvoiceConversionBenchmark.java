@@ -0,0 +1,89 @@
+package com.telekom.training.day1.legacyadapter;
+
+import com.telekom.training.day1.legacyadapter.fixed.LegacyInvoiceConverter;
+import com.telekom.training.day1.legacyadapter.initial.OldInvoiceRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy -> Modern conversion of 1M invoice records as done by the LegacyBillingAdapter.
+ * The java.time variants are the per-record conversion the adapter used before the
+ * LegacyInvoiceConverter; compare with -prof gc for the allocation difference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LegacyInvoiceConversionBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long START_MILLIS = 19_000 * DAY_MILLIS;
+    private static final String[] TYPES = {"MONTHLY", "INSTALL", "ADJUST", "TERM", "OTHER"};
+    private static final String[] METHODS = {"DD", "BT", "CC", "PP"};
+    private static final String[] STATUSES = {"PENDING", "PAID", "PARTIAL_PAID"};
+
+    private OldInvoiceRecord[] records;
+    private LegacyInvoiceConverter converter;
+    private ZoneId zone;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zone = ZoneId.systemDefault();
+        converter = new LegacyInvoiceConverter();
+        records = new OldInvoiceRecord[RECORDS];
+        Random random = new Random(42);
+        for (int i = 0; i < RECORDS; i++) {
+            OldInvoiceRecord record = new OldInvoiceRecord();
+            record.invoiceId = "INV-" + (1000 + i);
+            record.customerId = "CUST-" + random.nextInt(10_000);
+            record.totalAmount = 10 + random.nextInt(100);
+            record.creationDate = new Date(START_MILLIS + random.nextInt(730) * DAY_MILLIS);
+            record.dueDate = new Date(record.creationDate.getTime() + 14 * DAY_MILLIS);
+            record.invoiceType = TYPES[random.nextInt(TYPES.length)];
+            record.paymentMethod = METHODS[random.nextInt(METHODS.length)];
+            record.status = STATUSES[random.nextInt(STATUSES.length)];
+            records[i] = record;
+        }
+    }
+
+    @Benchmark
+    public void convertRecords(Blackhole blackhole) {
+        for (OldInvoiceRecord record : records) {
+            blackhole.consume(converter.toInvoice(record));
+        }
+    }
+
+    @Benchmark
+    public void convertDatesCached(Blackhole blackhole) {
+        for (OldInvoiceRecord record : records) {
+            blackhole.consume(converter.toLocalDate(record.creationDate));
+            blackhole.consume(converter.toLocalDate(record.dueDate));
+        }
+    }
+
+    @Benchmark
+    public void convertDatesJavaTime(Blackhole blackhole) {
+        for (OldInvoiceRecord record : records) {
+            blackhole.consume(record.creationDate.toInstant().atZone(zone).toLocalDate());
+            blackhole.consume(record.dueDate.toInstant().atZone(zone).toLocalDate());
+        }
+    }
+}
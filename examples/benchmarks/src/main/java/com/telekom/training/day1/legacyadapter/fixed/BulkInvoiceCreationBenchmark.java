@@ -0,0 +1,109 @@
+package com.telekom.training.day1.legacyadapter.fixed;
+
+import com.telekom.training.day1.legacyadapter.initial.LegacyBillingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice creation through the BillingService API of LegacyBillingAdapter: createInvoice
+ * (one legacy call and one lock per invoice) against createInvoices (one legacy call and one
+ * critical section per batch of 64) at 1, 8 and 32 threads, including request conversion and
+ * validation. Scores are invoices per millisecond.
+ * Lives in the adapter's package because the request and invoice types are package-private.
+ * Short iterations on a fresh system keep the heap small, since every invoice is retained.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInvoiceCreationBenchmark {
+
+    private static final int BATCH = 64;
+    private static final int CUSTOMERS = 1000;
+
+    private final List<CreateInvoiceRequest> requests = new ArrayList<>(BATCH);
+    private LegacyBillingAdapter adapter;
+
+    @Setup(Level.Trial)
+    public void setUpBatch() {
+        Random random = new Random(42);
+        LocalDate dueDate = LocalDate.now().plusDays(14);
+        for (int i = 0; i < BATCH; i++) {
+            requests.add(new CreateInvoiceRequest("CUST-" + random.nextInt(CUSTOMERS), 10 + random.nextInt(100),
+                dueDate, InvoiceType.MONTHLY_BILL, PaymentMethod.DIRECT_DEBIT));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpAdapter() {
+        adapter = new LegacyBillingAdapter(new LegacyBillingSystem());
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public void oneByOne01(Blackhole blackhole) {
+        createOneByOne(blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(BATCH)
+    public void oneByOne08(Blackhole blackhole) {
+        createOneByOne(blackhole);
+    }
+
+    @Benchmark
+    @Threads(32)
+    @OperationsPerInvocation(BATCH)
+    public void oneByOne32(Blackhole blackhole) {
+        createOneByOne(blackhole);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public List<?> batched01() {
+        return adapter.createInvoices(requests);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(BATCH)
+    public List<?> batched08() {
+        return adapter.createInvoices(requests);
+    }
+
+    @Benchmark
+    @Threads(32)
+    @OperationsPerInvocation(BATCH)
+    public List<?> batched32() {
+        return adapter.createInvoices(requests);
+    }
+
+    private void createOneByOne(Blackhole blackhole) {
+        for (CreateInvoiceRequest request : requests) {
+            blackhole.consume(adapter.createInvoice(request));
+        }
+    }
+}
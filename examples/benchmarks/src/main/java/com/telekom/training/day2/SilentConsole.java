@@ -0,0 +1,42 @@
+package com.telekom.training.day2;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The examples log every call to System.out. Benchmarks swap in a discarding stream during a trial,
+ * so the numbers show the pattern's cost and not the terminal's. The string building still happens.
+ */
+public final class SilentConsole {
+
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+            // discard
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // discard
+        }
+    });
+
+    private static PrintStream console;
+
+    private SilentConsole() {
+    }
+
+    public static synchronized void silence() {
+        if (console == null) {
+            console = System.out;
+            System.setOut(DISCARD);
+        }
+    }
+
+    public static synchronized void restore() {
+        if (console != null) {
+            System.setOut(console);
+            console = null;
+        }
+    }
+}
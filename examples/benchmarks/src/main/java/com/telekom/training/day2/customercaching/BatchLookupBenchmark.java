@@ -0,0 +1,90 @@
+package com.telekom.training.day2.customercaching;
+
+import com.telekom.training.day2.SilentConsole;
+import com.telekom.training.day2.customercaching.fixed.CachedCustomerServiceProxy;
+import com.telekom.training.day2.customercaching.fixed.DatabaseCustomerService;
+import com.telekom.training.day2.customercaching.initial.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A billing run looking up customers on a cold cache: getCustomer() one by one, where every miss
+ * pays the database latency, against getCustomers(), where all misses share one round trip.
+ * The cache is cleared before every invocation. Scores are milliseconds per run.
+ * 10000 lookups is the billing run size; with 1 ms latency one oneByOne invocation takes over 10 s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchLookupBenchmark {
+
+    @Param({"1000", "10000"})
+    private int lookups;
+
+    @Param({"0", "1"})
+    private long latencyMs;
+
+    private List<String> customerIds;
+    private CachedCustomerServiceProxy proxy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SilentConsole.silence();
+        customerIds = new ArrayList<>(lookups);
+        List<Customer> customers = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            String customerId = String.format("BENCH%06d", i);
+            customerIds.add(customerId);
+            customers.add(new Customer(customerId, "Customer " + i, customerId.toLowerCase() + "@example.com",
+                LocalDate.of(2020, 1, 1), Collections.singletonList("Basic"), "A"));
+        }
+
+        DatabaseCustomerService database = new DatabaseCustomerService(latencyMs);
+        database.preload(customers);
+        proxy = new CachedCustomerServiceProxy(database, 3_600_000);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        proxy.clearCache();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SilentConsole.restore();
+    }
+
+    @Benchmark
+    public void oneByOne(Blackhole blackhole) {
+        for (String customerId : customerIds) {
+            blackhole.consume(proxy.getCustomer(customerId));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Customer> batched() {
+        return proxy.getCustomers(customerIds);
+    }
+}
@@ -0,0 +1,155 @@
+package com.telekom.training.day2.customercaching;
+
+import com.telekom.training.day2.SilentConsole;
+import com.telekom.training.day2.customercaching.fixed.CachedCustomerServiceProxy;
+import com.telekom.training.day2.customercaching.fixed.DatabaseCustomerService;
+import com.telekom.training.day2.customercaching.initial.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proxy hot path: CachedCustomerServiceProxy.getCustomer() for hits and misses at 1 to 64 threads.
+ *
+ * Hits use a working set that fits into the cache. Misses cycle through far more customers than the
+ * cache holds, with zero database latency, so they measure the proxy's own miss path
+ * (single-flight bookkeeping, insert, eviction) and not a sleep.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerCacheBenchmark {
+
+    private static final int HOT_CUSTOMERS = 1_024;
+    private static final int COLD_CUSTOMERS = 262_144;
+    private static final int MISS_CACHE_SIZE = 1_024;
+
+    private String[] hotIds;
+    private String[] coldIds;
+    private CachedCustomerServiceProxy hitProxy;
+    private CachedCustomerServiceProxy missProxy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SilentConsole.silence();
+        hotIds = customerIds("HOT", HOT_CUSTOMERS);
+        coldIds = customerIds("COLD", COLD_CUSTOMERS);
+
+        DatabaseCustomerService database = new DatabaseCustomerService(0);
+        database.preload(customers(hotIds));
+        database.preload(customers(coldIds));
+
+        hitProxy = new CachedCustomerServiceProxy(database, 3_600_000);
+        for (String customerId : hotIds) {
+            hitProxy.getCustomer(customerId);
+        }
+        missProxy = new CachedCustomerServiceProxy(database, 3_600_000,
+            MISS_CACHE_SIZE, CachedCustomerServiceProxy.DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SilentConsole.restore();
+    }
+
+    /**
+     * Per-thread cursor, so threads do not contend on a shared counter.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = (int) (Thread.currentThread().getId() * 7919);
+        }
+
+        String pick(String[] ids) {
+            return ids[(next++ & Integer.MAX_VALUE) % ids.length];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Customer hit01Thread(Cursor cursor) {
+        return hitProxy.getCustomer(cursor.pick(hotIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Customer hit04Threads(Cursor cursor) {
+        return hitProxy.getCustomer(cursor.pick(hotIds));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Customer hit16Threads(Cursor cursor) {
+        return hitProxy.getCustomer(cursor.pick(hotIds));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Customer hit64Threads(Cursor cursor) {
+        return hitProxy.getCustomer(cursor.pick(hotIds));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Customer miss01Thread(Cursor cursor) {
+        return missProxy.getCustomer(cursor.pick(coldIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Customer miss04Threads(Cursor cursor) {
+        return missProxy.getCustomer(cursor.pick(coldIds));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Customer miss16Threads(Cursor cursor) {
+        return missProxy.getCustomer(cursor.pick(coldIds));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Customer miss64Threads(Cursor cursor) {
+        return missProxy.getCustomer(cursor.pick(coldIds));
+    }
+
+    private static String[] customerIds(String prefix, int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = String.format("%s%06d", prefix, i);
+        }
+        return ids;
+    }
+
+    private static List<Customer> customers(String[] ids) {
+        List<Customer> customers = new ArrayList<>(ids.length);
+        for (String customerId : ids) {
+            customers.add(new Customer(customerId, "Customer " + customerId, customerId.toLowerCase() + "@example.com",
+                LocalDate.of(2020, 1, 1), Collections.singletonList("Basic"), "A"));
+        }
+        return customers;
+    }
+}
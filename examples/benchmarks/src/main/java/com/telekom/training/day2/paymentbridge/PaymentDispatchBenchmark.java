@@ -0,0 +1,102 @@
+package com.telekom.training.day2.paymentbridge;
+
+import com.telekom.training.day2.SilentConsole;
+import com.telekom.training.day2.paymentbridge.fixed.LoggingPaymentProcessor;
+import com.telekom.training.day2.paymentbridge.fixed.PaymentAuditLog;
+import com.telekom.training.day2.paymentbridge.fixed.PaymentImplementation;
+import com.telekom.training.day2.paymentbridge.fixed.PaymentProcessor;
+import com.telekom.training.day2.paymentbridge.fixed.PaymentResult;
+import com.telekom.training.day2.paymentbridge.fixed.SimplePaymentProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bridge hot path: dispatch from a PaymentProcessor abstraction to its implementation.
+ * The provider SDKs sleep for 100-200 ms, so an in-memory implementation stands in for them
+ * and the numbers show the bridge and the processors' logging overhead only.
+ * The logging processor writes to an audit log in a temp directory; events the background writer
+ * cannot keep up with are dropped and reported at the end of the trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentDispatchBenchmark {
+
+    private static final String TOKEN = "tok_4242424242424242";
+    private static final BigDecimal AMOUNT = new BigDecimal("49.95");
+
+    private PaymentImplementation implementation;
+    private PaymentProcessor simpleProcessor;
+    private PaymentProcessor loggingProcessor;
+    private PaymentAuditLog auditLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SilentConsole.silence();
+        implementation = new InMemoryImplementation();
+        simpleProcessor = new SimplePaymentProcessor(implementation);
+        auditLog = new PaymentAuditLog(Files.createTempDirectory("payment-audit").resolve("audit.log"));
+        loggingProcessor = new LoggingPaymentProcessor(implementation, auditLog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        auditLog.close();
+        SilentConsole.restore();
+        System.out.printf("%naudit events written: %d, dropped: %d%n",
+            auditLog.getWrittenEvents(), auditLog.getDroppedEvents());
+    }
+
+    @Benchmark
+    public PaymentResult directImplementation() {
+        return implementation.processPayment(TOKEN, AMOUNT, "EUR");
+    }
+
+    @Benchmark
+    public PaymentResult simpleProcessor() {
+        return simpleProcessor.processPayment(TOKEN, AMOUNT, "EUR");
+    }
+
+    @Benchmark
+    public PaymentResult loggingProcessor() {
+        return loggingProcessor.processPayment(TOKEN, AMOUNT, "EUR");
+    }
+
+    // Provider stand-in without network latency
+    private static final class InMemoryImplementation implements PaymentImplementation {
+        private long nextId;
+
+        @Override
+        public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
+            return new PaymentResult("tx_" + nextId++, true, "Payment successful", "InMemory");
+        }
+
+        @Override
+        public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+            return new PaymentResult("re_" + nextId++, true, "Refund successful", "InMemory");
+        }
+
+        @Override
+        public String getProviderName() {
+            return "InMemory";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.telekom.training.day2.paymentbridge;
+
+import com.telekom.training.day2.SilentConsole;
+import com.telekom.training.day2.paymentbridge.fixed.AsyncPaymentAdapter;
+import com.telekom.training.day2.paymentbridge.fixed.AsyncPaymentImplementation;
+import com.telekom.training.day2.paymentbridge.fixed.RoutingPaymentImplementation;
+import com.telekom.training.day2.paymentbridge.fixed.SimulatedPaymentImplementation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * TAIL LATENCY DEMO: Fixed provider vs latency-aware routing vs routing with hedged requests
+ * (hedges repeat a charge at the same provider under the same idempotency key)
+ *
+ * Both simulated providers stall for 400ms on a few percent of their calls, and halfway through the
+ * run Stripe degrades from 20ms to 120ms. Payments run one after another, as in a checkout, and the
+ * end-to-end latency of each one is recorded. JMH reports averages, so percentiles are measured here.
+ *
+ * Usage: java -cp benchmarks.jar com.telekom.training.day2.paymentbridge.PaymentRoutingTailLatency [payments]
+ * (default: 400)
+ */
+public class PaymentRoutingTailLatency {
+
+    public static void main(String[] args) {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+
+        System.out.println("🏁 PAYMENT ROUTING TAIL LATENCY");
+        System.out.println("===============================");
+        System.out.printf("Payments: %d, Stripe degrades to 120ms after %d payments%n%n", payments, payments / 2);
+
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(32, 1000);
+        try {
+            Scenario fixed = new Scenario();
+            report("📊 Fixed provider (Stripe)", run(new AsyncPaymentAdapter(fixed.stripe, ioExecutor), fixed, payments));
+
+            Scenario routed = new Scenario();
+            RoutingPaymentImplementation routing = routed.routing(ioExecutor, false);
+            report("🔀 Latency-aware routing", run(routing, routed, payments));
+            System.out.printf("   routed: Stripe %d, PayPal %d%n%n",
+                routing.getRoutedRequests("Stripe"), routing.getRoutedRequests("PayPal"));
+
+            Scenario hedgedScenario = new Scenario();
+            RoutingPaymentImplementation hedged = hedgedScenario.routing(ioExecutor, true);
+            report("🚀 Routing with hedged requests", run(hedged, hedgedScenario, payments));
+            System.out.printf("   hedged: %d, won by hedge: %d, charges booked: %d for %d payments%n",
+                hedged.getHedgedRequests(), hedged.getHedgeWins(),
+                hedgedScenario.stripe.getPaymentCount() + hedgedScenario.paypal.getPaymentCount(), payments);
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    private static long[] run(AsyncPaymentImplementation payment, Scenario scenario, int payments) {
+        long[] latencies = new long[payments];
+        SilentConsole.silence();
+        try {
+            for (int i = 0; i < payments; i++) {
+                if (i == payments / 2) {
+                    scenario.stripe.setLatencyMs(120);
+                }
+                long start = System.nanoTime();
+                payment.processPaymentAsync("token_" + i, new BigDecimal("19.99"), "EUR").join();
+                latencies[i] = System.nanoTime() - start;
+            }
+        } finally {
+            SilentConsole.restore();
+        }
+        return latencies;
+    }
+
+    private static void report(String title, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long latency : sorted) {
+            total += latency;
+        }
+        System.out.println(title);
+        System.out.printf("   mean %.1f ms, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+            total / (double) sorted.length / 1e6, percentile(sorted, 50), percentile(sorted, 95),
+            percentile(sorted, 99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Fresh providers per run, so call counters and stall positions are the same for every variant
+    private static final class Scenario {
+        private final SimulatedPaymentImplementation stripe = new SimulatedPaymentImplementation("Stripe", 20);
+        private final SimulatedPaymentImplementation paypal = new SimulatedPaymentImplementation("PayPal", 25);
+
+        Scenario() {
+            stripe.setSlowCalls(25, 400);
+            paypal.setSlowCalls(30, 400);
+        }
+
+        RoutingPaymentImplementation routing(ExecutorService ioExecutor, boolean hedging) {
+            return RoutingPaymentImplementation.builder()
+                .withProvider(stripe, ioExecutor)
+                .withProvider(paypal, ioExecutor)
+                .withHedging(hedging)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.telekom.training.day2.tariffhierarchy;
+
+import com.telekom.training.day2.tariffhierarchy.fixed.SingleTariff;
+import com.telekom.training.day2.tariffhierarchy.fixed.TariffBundle;
+import com.telekom.training.day2.tariffhierarchy.fixed.TariffComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composite hot path: TariffBundle.getPrice() over balanced bundle trees.
+ * A tree of the given depth and fan-out has fanOut^depth leaf tariffs. Bundles cache their price,
+ * so bundlePrice measures a cache hit and priceAfterEdit the re-aggregation along one path after
+ * replacing a leaf at the bottom of the tree. The Cents variants use the long-cents API,
+ * which re-aggregates without allocating.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TariffBundleBenchmark {
+
+    @Param({"1", "2", "4", "6", "8"})
+    private int depth;
+
+    @Param({"4"})
+    private int fanOut;
+
+    private TariffComponent root;
+    private TariffComponent deepestBundle;
+    private TariffComponent editedLeaf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        root = buildTree(depth, fanOut, "root");
+        deepestBundle = root;
+        while (!(deepestBundle.getComponents().get(0) instanceof SingleTariff)) {
+            deepestBundle = deepestBundle.getComponents().get(0);
+        }
+        editedLeaf = deepestBundle.getComponents().get(0);
+    }
+
+    @Benchmark
+    public BigDecimal bundlePrice() {
+        return root.getPrice();
+    }
+
+    @Benchmark
+    public long bundlePriceCents() {
+        return root.getPriceCents();
+    }
+
+    @Benchmark
+    public BigDecimal priceAfterEdit() {
+        deepestBundle.remove(editedLeaf);
+        deepestBundle.add(editedLeaf);
+        return root.getPrice();
+    }
+
+    @Benchmark
+    public long priceCentsAfterEdit() {
+        deepestBundle.remove(editedLeaf);
+        deepestBundle.add(editedLeaf);
+        return root.getPriceCents();
+    }
+
+    static TariffComponent buildTree(int depth, int fanOut, String name) {
+        if (depth == 0) {
+            return new SingleTariff(name, new BigDecimal("9.99"), "Option");
+        }
+        TariffBundle bundle = new TariffBundle(name, new BigDecimal("0.50"));
+        for (int i = 0; i < fanOut; i++) {
+            bundle.add(buildTree(depth - 1, fanOut, name + "." + i));
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,96 @@
+package com.telekom.training.day2.tarifoptions;
+
+import com.telekom.training.day2.tarifoptions.fixed.BasicTariff;
+import com.telekom.training.day2.tarifoptions.fixed.Tariff;
+import com.telekom.training.day2.tarifoptions.fixed.TariffCatalog;
+import com.telekom.training.day2.tarifoptions.fixed.TariffOption;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * HEAP FOOTPRINT DEMO: One tariff object graph per customer vs the shared TariffCatalog
+ *
+ * Every customer gets a freshly built BasicTariff (as when loading contracts from the database)
+ * plus a random set of options. Retained heap is measured after a full GC.
+ * JMH measures time, not retained size, so this runs as a plain main class.
+ *
+ * Usage: java -Xmx4g -cp benchmarks.jar com.telekom.training.day2.tarifoptions.TariffCatalogFootprint [customers...]
+ * (defaults: 1000000 10000000)
+ */
+public class TariffCatalogFootprint {
+
+    private static final String[][] BASE_TARIFFS = {
+        {"MagentaMobil S", "29.95", "500", "100", "5000"},
+        {"MagentaMobil M", "39.95", "1000", "500", "20000"},
+        {"MagentaMobil L", "49.95", "3000", "3000", "50000"},
+    };
+    private static final TariffOption[] OPTIONS = TariffOption.values();
+
+    public static void main(String[] args) {
+        long[] customerCounts = args.length > 0 ? new long[args.length] : new long[] {1_000_000, 10_000_000};
+        for (int i = 0; i < args.length; i++) {
+            customerCounts[i] = Long.parseLong(args[i]);
+        }
+
+        System.out.println("🏁 TARIFF CATALOG HEAP FOOTPRINT");
+        System.out.println("================================");
+        System.out.printf("Max heap: %d MB%n%n", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        for (long customers : customerCounts) {
+            int count = (int) customers;
+            System.out.printf("👥 %,d customers%n", count);
+
+            long unsharedBytes = measure(count, null);
+            System.out.printf("📊 One object graph per customer: %,d MB (%d bytes/customer)%n",
+                unsharedBytes / (1024 * 1024), unsharedBytes / count);
+
+            TariffCatalog catalog = new TariffCatalog();
+            long sharedBytes = measure(count, catalog);
+            System.out.printf("🚀 Shared via TariffCatalog:      %,d MB (%d bytes/customer)%n",
+                sharedBytes / (1024 * 1024), sharedBytes / count);
+            System.out.println("📈 " + catalog.getStats());
+            System.out.printf("🎯 Heap saved: %,d MB (estimate from stats: %,d MB)%n%n",
+                (unsharedBytes - sharedBytes) / (1024 * 1024),
+                catalog.getStats().getEstimatedBytesSaved() / (1024 * 1024));
+        }
+    }
+
+    // Retained heap of an array holding one tariff per customer
+    private static long measure(int customers, TariffCatalog catalog) {
+        long before = usedHeapAfterGc();
+        Tariff[] tariffs = new Tariff[customers];
+        Random random = new Random(42);
+        for (int i = 0; i < customers; i++) {
+            Tariff tariff = newBaseTariff(random);
+            int mask = random.nextInt(1 << OPTIONS.length);
+            for (TariffOption option : OPTIONS) {
+                if ((mask & option.bit()) != 0) {
+                    tariff = option.decorate(tariff);
+                }
+            }
+            tariffs[i] = catalog != null ? catalog.intern(tariff) : tariff;
+        }
+        long after = usedHeapAfterGc();
+        if (tariffs[random.nextInt(customers)] == null) {
+            throw new IllegalStateException("unreachable, keeps the array alive until here");
+        }
+        return after - before;
+    }
+
+    private static Tariff newBaseTariff(Random random) {
+        String[] base = BASE_TARIFFS[random.nextInt(BASE_TARIFFS.length)];
+        return new BasicTariff(base[0], new BigDecimal(base[1]),
+            Integer.parseInt(base[2]), Integer.parseInt(base[3]), Integer.parseInt(base[4]));
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
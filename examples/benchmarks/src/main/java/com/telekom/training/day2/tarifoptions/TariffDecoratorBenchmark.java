@@ -0,0 +1,114 @@
+package com.telekom.training.day2.tarifoptions;
+
+import com.telekom.training.day2.tarifoptions.fixed.BasicTariff;
+import com.telekom.training.day2.tarifoptions.fixed.FlatrateDecorator;
+import com.telekom.training.day2.tarifoptions.fixed.FrozenTariff;
+import com.telekom.training.day2.tarifoptions.fixed.InsuranceDecorator;
+import com.telekom.training.day2.tarifoptions.fixed.RoamingDecorator;
+import com.telekom.training.day2.tarifoptions.fixed.Tariff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator hot path: Tariff.getPrice() through a chain of 1 to 50 option decorators.
+ * The chain rotates through all three decorator types, so the call sites see the same
+ * polymorphism as a real configurator.
+ *
+ * decoratedPrice and decoratedPriceCents compare the BigDecimal and the long-cents API;
+ * bigDecimalAddPerLevel replays the former one-BigDecimal.add-per-decorator pricing as a baseline.
+ * Run with -prof gc to see the allocation difference.
+ * The frozen* variants read the same values from the chain compiled by FrozenTariff.freeze().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TariffDecoratorBenchmark {
+
+    @Param({"1", "5", "10", "20", "50"})
+    private int depth;
+
+    private Tariff tariff;
+    private Tariff frozen;
+    private BigDecimal basePrice;
+    private BigDecimal[] optionCosts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        basePrice = new BigDecimal("29.95");
+        tariff = decorate(new BasicTariff("MagentaMobil S", basePrice, 500, 100, 5_000), depth);
+        frozen = FrozenTariff.freeze(tariff);
+        BigDecimal[] costs = {new BigDecimal("15.00"), new BigDecimal("8.50"), new BigDecimal("4.99")};
+        optionCosts = new BigDecimal[depth];
+        for (int i = 0; i < depth; i++) {
+            optionCosts[i] = costs[i % 3];
+        }
+    }
+
+    @Benchmark
+    public BigDecimal decoratedPrice() {
+        return tariff.getPrice();
+    }
+
+    @Benchmark
+    public long decoratedPriceCents() {
+        return tariff.getPriceCents();
+    }
+
+    @Benchmark
+    public String decoratedDescription() {
+        return tariff.getDescription();
+    }
+
+    @Benchmark
+    public BigDecimal frozenPrice() {
+        return frozen.getPrice();
+    }
+
+    @Benchmark
+    public String frozenDescription() {
+        return frozen.getDescription();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAddPerLevel() {
+        BigDecimal price = basePrice;
+        for (BigDecimal cost : optionCosts) {
+            price = price.add(cost);
+        }
+        return price;
+    }
+
+    static Tariff decorate(Tariff tariff, int depth) {
+        Tariff decorated = tariff;
+        for (int i = 0; i < depth; i++) {
+            switch (i % 3) {
+                case 0:
+                    decorated = new FlatrateDecorator(decorated);
+                    break;
+                case 1:
+                    decorated = new RoamingDecorator(decorated);
+                    break;
+                default:
+                    decorated = new InsuranceDecorator(decorated);
+                    break;
+            }
+        }
+        return decorated;
+    }
+}
@@ -1,7 +1,13 @@
 package com.telekom.training.day1.legacyadapter.fixed;
 
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Target Interface - Moderne Billing Service API
@@ -16,11 +22,30 @@ public interface BillingService {
      */
     Invoice createInvoice(CreateInvoiceRequest request);
     
+    /**
+     * Erstellt mehrere Rechnungen in einem Aufruf - alle oder keine.
+     * Darf von mehreren Threads gleichzeitig aufgerufen werden.
+     */
+    List<Invoice> createInvoices(List<CreateInvoiceRequest> requests);
+    
     /**
      * Sucht Rechnungen für einen Kunden
      */
     List<Invoice> findInvoices(InvoiceSearchRequest request);
     
+    /**
+     * Liefert eine Seite der Suchergebnisse, sortiert nach Rechnungsdatum.
+     * Ohne continuationToken beginnt die Suche vorne; das Token der Antwort holt die nächste Seite.
+     */
+    InvoicePage findInvoicePage(InvoiceSearchRequest request, int pageSize, String continuationToken);
+    
+    /**
+     * Streamt alle Suchergebnisse seitenweise; im Speicher liegt immer nur eine Seite.
+     */
+    default Stream<Invoice> streamInvoices(InvoiceSearchRequest request, int pageSize) {
+        return StreamSupport.stream(new InvoicePageSpliterator(this, request, pageSize), false);
+    }
+    
     /**
      * Verarbeitet eine Zahlung für eine Rechnung
      */
@@ -134,6 +159,22 @@ class Invoice {
     }
 }
 
+class InvoicePage {
+    private final List<Invoice> invoices;
+    private final String continuationToken;
+    
+    public InvoicePage(List<Invoice> invoices, String continuationToken) {
+        this.invoices = invoices;
+        this.continuationToken = continuationToken;
+    }
+    
+    // Getters
+    public List<Invoice> getInvoices() { return invoices; }
+    /** Opakes Token für die nächste Seite, null auf der letzten Seite */
+    public String getContinuationToken() { return continuationToken; }
+    public boolean hasMore() { return continuationToken != null; }
+}
+
 class InvoiceDetails extends Invoice {
     private final LocalDate paymentDate;
     private final double paidAmount;
@@ -189,4 +230,36 @@ enum InvoiceStatus {
 
 enum PaymentStatus {
     FULL_PAYMENT, PARTIAL_PAYMENT, OVERPAYMENT, INVOICE_NOT_FOUND
-}
\ No newline at end of file
+}
+
+// Lädt die nächste Seite erst, wenn die aktuelle verbraucht ist
+class InvoicePageSpliterator extends Spliterators.AbstractSpliterator<Invoice> {
+    private final BillingService billingService;
+    private final InvoiceSearchRequest request;
+    private final int pageSize;
+    private Iterator<Invoice> page;
+    private String continuationToken;
+    private boolean lastPage;
+    
+    InvoicePageSpliterator(BillingService billingService, InvoiceSearchRequest request, int pageSize) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.billingService = billingService;
+        this.request = request;
+        this.pageSize = pageSize;
+    }
+    
+    @Override
+    public boolean tryAdvance(Consumer<? super Invoice> action) {
+        while (page == null || !page.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            InvoicePage next = billingService.findInvoicePage(request, pageSize, continuationToken);
+            page = next.getInvoices().iterator();
+            continuationToken = next.getContinuationToken();
+            lastPage = !next.hasMore();
+        }
+        action.accept(page.next());
+        return true;
+    }
+}
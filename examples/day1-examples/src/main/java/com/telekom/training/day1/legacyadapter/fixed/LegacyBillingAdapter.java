@@ -4,11 +4,9 @@ import com.telekom.training.day1.legacyadapter.initial.LegacyBillingSystem;
 import com.telekom.training.day1.legacyadapter.initial.OldInvoiceRecord;
 import com.telekom.training.day1.legacyadapter.initial.LegacyBillingException;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * ADAPTER PATTERN: Legacy Billing System Adapter
@@ -25,31 +23,40 @@ import java.util.stream.Collectors;
  */
 public class LegacyBillingAdapter implements BillingService {
     
+    private static final String INVOICE_ID_PREFIX = "INV-";
+    
     private final LegacyBillingSystem legacySystem;
+    // Zentrale Type Conversion und Enum Mapping
+    private final LegacyInvoiceConverter converter;
     
     public LegacyBillingAdapter(LegacyBillingSystem legacySystem) {
+        this(legacySystem, new LegacyInvoiceConverter());
+    }
+    
+    public LegacyBillingAdapter(LegacyBillingSystem legacySystem, LegacyInvoiceConverter converter) {
         this.legacySystem = legacySystem;
+        this.converter = converter;
     }
     
     @Override
     public Invoice createInvoice(CreateInvoiceRequest request) {
         try {
             // Type Conversions - zentral in Adapter
-            Date creationDate = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
-            int dueDays = (int) java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), request.getDueDate());
+            Date creationDate = converter.startOfToday();
+            int dueDays = converter.daysFromToday(request.getDueDate());
             
             // Legacy Parameter Mapping - isoliert im Adapter
             OldInvoiceRecord legacyInvoice = legacySystem.createBillForCustomer(
                 request.getCustomerId(),
                 request.getAmount(),
                 creationDate,
-                mapInvoiceTypeToLegacy(request.getInvoiceType()),
-                mapPaymentMethodToLegacy(request.getPaymentMethod()),
+                converter.toLegacy(request.getInvoiceType()),
+                converter.toLegacy(request.getPaymentMethod()),
                 dueDays
             );
             
             // Convert Legacy Response to Modern
-            return convertLegacyToModernInvoice(legacyInvoice);
+            return converter.toInvoice(legacyInvoice);
             
         } catch (LegacyBillingException e) {
             // Exception Translation - Legacy zu Modern
@@ -57,16 +64,49 @@ public class LegacyBillingAdapter implements BillingService {
         }
     }
     
+    @Override
+    public List<Invoice> createInvoices(List<CreateInvoiceRequest> requests) {
+        // Konvertierung außerhalb des Legacy Locks, ein Datum für den ganzen Batch
+        Date creationDate = converter.startOfToday();
+        int count = requests.size();
+        String[] customerIds = new String[count];
+        double[] amounts = new double[count];
+        String[] invoiceTypes = new String[count];
+        String[] paymentMethods = new String[count];
+        int[] dueDays = new int[count];
+        for (int i = 0; i < count; i++) {
+            CreateInvoiceRequest request = requests.get(i);
+            customerIds[i] = request.getCustomerId();
+            amounts[i] = request.getAmount();
+            invoiceTypes[i] = converter.toLegacy(request.getInvoiceType());
+            paymentMethods[i] = converter.toLegacy(request.getPaymentMethod());
+            dueDays[i] = converter.daysFromToday(request.getDueDate());
+        }
+        
+        try {
+            // Ein Legacy Call: Prüfung, Nummernblock und Einfügen für den ganzen Batch
+            OldInvoiceRecord[] legacyInvoices = legacySystem.createBillsForCustomers(
+                customerIds, amounts, creationDate, invoiceTypes, paymentMethods, dueDays);
+            
+            List<Invoice> invoices = new ArrayList<>(count);
+            for (OldInvoiceRecord legacyInvoice : legacyInvoices) {
+                invoices.add(converter.toInvoice(legacyInvoice));
+            }
+            return invoices;
+            
+        } catch (LegacyBillingException e) {
+            throw new BillingServiceException("Failed to create invoices", e);
+        }
+    }
+    
     @Override
     public List<Invoice> findInvoices(InvoiceSearchRequest request) {
         // Type Conversions
-        Date fromDate = request.getFromDate() != null ?
-            Date.from(request.getFromDate().atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
-        Date toDate = request.getToDate() != null ?
-            Date.from(request.getToDate().atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
+        Date fromDate = converter.toLegacyDate(request.getFromDate());
+        Date toDate = converter.toLegacyDate(request.getToDate());
         
         // Legacy Status Mapping
-        String legacyStatusFilter = mapInvoiceStatusToLegacy(request.getStatusFilter());
+        String legacyStatusFilter = converter.toLegacy(request.getStatusFilter());
         
         // Legacy System Call
         List<OldInvoiceRecord> legacyInvoices = legacySystem.findInvoicesForCustomer(
@@ -74,14 +114,61 @@ public class LegacyBillingAdapter implements BillingService {
         );
         
         // Convert Collection
-        return legacyInvoices.stream()
-            .map(this::convertLegacyToModernInvoice)
-            .collect(Collectors.toList());
+        List<Invoice> invoices = new ArrayList<>(legacyInvoices.size());
+        for (OldInvoiceRecord legacyInvoice : legacyInvoices) {
+            invoices.add(converter.toInvoice(legacyInvoice));
+        }
+        return invoices;
+    }
+    
+    @Override
+    public InvoicePage findInvoicePage(InvoiceSearchRequest request, int pageSize, String continuationToken) {
+        if (pageSize <= 0) {
+            throw new BillingServiceException("Page size must be positive: " + pageSize);
+        }
+        Date fromDate = converter.toLegacyDate(request.getFromDate());
+        Date toDate = converter.toLegacyDate(request.getToDate());
+        
+        // Cursor aus dem Token: Datum und ID der letzten gelieferten Rechnung
+        Date afterDate = null;
+        String afterInvoiceId = null;
+        if (continuationToken != null) {
+            int separator = continuationToken.indexOf(':');
+            try {
+                afterDate = new Date(Long.parseLong(continuationToken.substring(0, separator)));
+                afterInvoiceId = continuationToken.substring(separator + 1);
+                // Das Legacy-System sortiert nach der Nummer aus "INV-<n>" und prüft das Format nicht selbst
+                if (!afterInvoiceId.startsWith(INVOICE_ID_PREFIX)) {
+                    throw new IllegalArgumentException("Invalid invoice id: " + afterInvoiceId);
+                }
+                Long.parseLong(afterInvoiceId.substring(INVOICE_ID_PREFIX.length()));
+            } catch (RuntimeException e) {
+                throw new BillingServiceException("Invalid continuation token: " + continuationToken, e);
+            }
+        }
+        
+        // Einen Datensatz mehr holen, um zu wissen, ob es eine weitere Seite gibt
+        List<OldInvoiceRecord> legacyInvoices = legacySystem.findInvoicesForCustomerAfter(
+            request.getCustomerId(), fromDate, toDate, converter.toLegacy(request.getStatusFilter()),
+            afterDate, afterInvoiceId, pageSize + 1
+        );
+        
+        int count = Math.min(pageSize, legacyInvoices.size());
+        List<Invoice> invoices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            invoices.add(converter.toInvoice(legacyInvoices.get(i)));
+        }
+        String nextToken = null;
+        if (legacyInvoices.size() > pageSize) {
+            OldInvoiceRecord last = legacyInvoices.get(pageSize - 1);
+            nextToken = last.creationDate.getTime() + ":" + last.invoiceId;
+        }
+        return new InvoicePage(invoices, nextToken);
     }
     
     @Override
     public PaymentResult processPayment(PaymentRequest request) {
-        Date paymentDate = Date.from(java.time.LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
+        Date paymentDate = converter.now();
         
         // Legacy System Call
         boolean success = legacySystem.processPaymentForInvoice(
@@ -110,105 +197,6 @@ public class LegacyBillingAdapter implements BillingService {
         return findInvoiceDetailsFromLegacySystem(invoiceId);
     }
     
-    // CENTRALIZED MAPPING LOGIC - keine Code Duplication mehr
-    
-    private String mapInvoiceTypeToLegacy(InvoiceType modernType) {
-        switch (modernType) {
-            case MONTHLY_BILL: return "MONTHLY";
-            case INSTALLATION: return "INSTALL";
-            case ADJUSTMENT: return "ADJUST";
-            case TERMINATION: return "TERM";
-            case OTHER:
-            default: return "OTHER";
-        }
-    }
-    
-    private InvoiceType mapInvoiceTypeFromLegacy(String legacyType) {
-        switch (legacyType) {
-            case "MONTHLY": return InvoiceType.MONTHLY_BILL;
-            case "INSTALL": return InvoiceType.INSTALLATION;
-            case "ADJUST": return InvoiceType.ADJUSTMENT;
-            case "TERM": return InvoiceType.TERMINATION;
-            default: return InvoiceType.OTHER;
-        }
-    }
-    
-    private String mapPaymentMethodToLegacy(PaymentMethod modernMethod) {
-        switch (modernMethod) {
-            case DIRECT_DEBIT: return "DD";
-            case BANK_TRANSFER: return "BT";
-            case CREDIT_CARD: return "CC";
-            case PAYPAL: return "PP";
-            case OTHER:
-            default: return "OTHER";
-        }
-    }
-    
-    private PaymentMethod mapPaymentMethodFromLegacy(String legacyMethod) {
-        switch (legacyMethod) {
-            case "DD": return PaymentMethod.DIRECT_DEBIT;
-            case "BT": return PaymentMethod.BANK_TRANSFER;
-            case "CC": return PaymentMethod.CREDIT_CARD;
-            case "PP": return PaymentMethod.PAYPAL;
-            default: return PaymentMethod.OTHER;
-        }
-    }
-    
-    private String mapInvoiceStatusToLegacy(InvoiceStatus modernStatus) {
-        switch (modernStatus) {
-            case OPEN: return "PENDING";
-            case PAID: return "PAID";
-            case PARTIALLY_PAID: return "PARTIAL_PAID";
-            case ALL:
-            default: return "ALL";
-        }
-    }
-    
-    private InvoiceStatus mapInvoiceStatusFromLegacy(String legacyStatus) {
-        switch (legacyStatus) {
-            case "PENDING": return InvoiceStatus.OPEN;
-            case "PAID": return InvoiceStatus.PAID;
-            case "PARTIAL_PAID": return InvoiceStatus.PARTIALLY_PAID;
-            default: return InvoiceStatus.OPEN;
-        }
-    }
-    
-    // CENTRALIZED TYPE CONVERSION
-    
-    private LocalDate convertLegacyDateToModern(Date legacyDate) {
-        return legacyDate != null ?
-            legacyDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
-    }
-    
-    private Invoice convertLegacyToModernInvoice(OldInvoiceRecord legacy) {
-        return new Invoice(
-            legacy.invoiceId,
-            legacy.customerId,
-            legacy.totalAmount,
-            convertLegacyDateToModern(legacy.creationDate),
-            convertLegacyDateToModern(legacy.dueDate),
-            mapInvoiceTypeFromLegacy(legacy.invoiceType),
-            mapPaymentMethodFromLegacy(legacy.paymentMethod),
-            mapInvoiceStatusFromLegacy(legacy.status)
-        );
-    }
-    
-    private InvoiceDetails convertLegacyToModernInvoiceDetails(OldInvoiceRecord legacy) {
-        return new InvoiceDetails(
-            legacy.invoiceId,
-            legacy.customerId,
-            legacy.totalAmount,
-            convertLegacyDateToModern(legacy.creationDate),
-            convertLegacyDateToModern(legacy.dueDate),
-            mapInvoiceTypeFromLegacy(legacy.invoiceType),
-            mapPaymentMethodFromLegacy(legacy.paymentMethod),
-            mapInvoiceStatusFromLegacy(legacy.status),
-            convertLegacyDateToModern(legacy.paymentDate),
-            legacy.paidAmount,
-            legacy.paymentReference
-        );
-    }
-    
     // BUSINESS LOGIC INTERPRETATION - macht Legacy Boolean verständlich
     
     private PaymentResult interpretLegacyPaymentResult(String invoiceId, double paymentAmount, boolean legacySuccess) {
@@ -0,0 +1,267 @@
+package com.telekom.training.day1.legacyadapter.fixed;
+
+import com.telekom.training.day1.legacyadapter.initial.OldInvoiceRecord;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Type Conversion zwischen Legacy und Modern - ausgelagert aus dem LegacyBillingAdapter.
+ *
+ * Datumswerte laufen über einen Cache pro Kalendertag: Tagesbeginn und -ende in Epoch-Millis
+ * sind je Tag einmal berechnet, bei Zonen mit festem Offset rein arithmetisch. Date -> LocalDate
+ * ist damit ein Array-Zugriff ohne Allokation, "heute" wird nur beim Tageswechsel neu bestimmt.
+ * Status, Rechnungstyp und Zahlungsart werden über Arrays nach Ordinal abgebildet statt per switch.
+ *
+ * Thread-safe: die Cache-Einträge sind unveränderlich, ein Wettlauf berechnet höchstens doppelt.
+ */
+public final class LegacyInvoiceConverter {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    // Direkt adressierter Cache, 4096 Tage decken gut elf Jahre ohne Kollision ab
+    private static final int CACHE_SIZE = 4096;
+
+    private static final CodeTable<InvoiceType> INVOICE_TYPES =
+        new CodeTable<>(InvoiceType.class, "OTHER", InvoiceType.OTHER)
+            .map(InvoiceType.MONTHLY_BILL, "MONTHLY")
+            .map(InvoiceType.INSTALLATION, "INSTALL")
+            .map(InvoiceType.ADJUSTMENT, "ADJUST")
+            .map(InvoiceType.TERMINATION, "TERM");
+
+    private static final CodeTable<PaymentMethod> PAYMENT_METHODS =
+        new CodeTable<>(PaymentMethod.class, "OTHER", PaymentMethod.OTHER)
+            .map(PaymentMethod.DIRECT_DEBIT, "DD")
+            .map(PaymentMethod.BANK_TRANSFER, "BT")
+            .map(PaymentMethod.CREDIT_CARD, "CC")
+            .map(PaymentMethod.PAYPAL, "PP");
+
+    // CANCELLED und ALL suchen im Legacy System nach "ALL", unbekannte Status gelten als offen
+    private static final CodeTable<InvoiceStatus> INVOICE_STATUSES =
+        new CodeTable<>(InvoiceStatus.class, "ALL", InvoiceStatus.OPEN)
+            .map(InvoiceStatus.OPEN, "PENDING")
+            .map(InvoiceStatus.PAID, "PAID")
+            .map(InvoiceStatus.PARTIALLY_PAID, "PARTIAL_PAID");
+
+    private final ZoneId zone;
+    private final Clock clock;
+    private final boolean fixedOffset;
+    // Bei festem Offset exakt, sonst Standard-Offset als Schätzwert für den Tag eines Zeitpunkts
+    private final long offsetMillis;
+    private final Day[] days = new Day[CACHE_SIZE];
+    private volatile Day today;
+
+    public LegacyInvoiceConverter() {
+        this(ZoneId.systemDefault(), Clock.systemDefaultZone());
+    }
+
+    public LegacyInvoiceConverter(ZoneId zone, Clock clock) {
+        this.zone = zone;
+        this.clock = clock;
+        ZoneRules rules = zone.getRules();
+        this.fixedOffset = rules.isFixedOffset();
+        ZoneOffset offset = rules.getStandardOffset(clock.instant());
+        this.offsetMillis = offset.getTotalSeconds() * 1000L;
+        this.today = dayAt(clock.millis());
+    }
+
+    // DATE CONVERSION
+
+    /**
+     * Legacy Date als Kalendertag in der Zone des Converters, null bleibt null
+     */
+    public LocalDate toLocalDate(Date legacyDate) {
+        return legacyDate != null ? dayAt(legacyDate.getTime()).date : null;
+    }
+
+    /**
+     * Tagesbeginn als Legacy Date - jedes Mal ein neues Objekt, da das Legacy System Date speichert
+     */
+    public Date toLegacyDate(LocalDate date) {
+        return date != null ? new Date(day(date.toEpochDay()).startMillis) : null;
+    }
+
+    /**
+     * Beginn des heutigen Tages als Legacy Date
+     */
+    public Date startOfToday() {
+        return new Date(today().startMillis);
+    }
+
+    /**
+     * Tage von heute bis zum angegebenen Datum, negativ für vergangene Tage
+     */
+    public int daysFromToday(LocalDate date) {
+        return (int) (date.toEpochDay() - today().epochDay);
+    }
+
+    /**
+     * Aktueller Zeitpunkt als Legacy Date
+     */
+    public Date now() {
+        return new Date(clock.millis());
+    }
+
+    // RECORD CONVERSION
+
+    public Invoice toInvoice(OldInvoiceRecord legacy) {
+        return new Invoice(
+            legacy.invoiceId,
+            legacy.customerId,
+            legacy.totalAmount,
+            toLocalDate(legacy.creationDate),
+            toLocalDate(legacy.dueDate),
+            INVOICE_TYPES.decode(legacy.invoiceType),
+            PAYMENT_METHODS.decode(legacy.paymentMethod),
+            INVOICE_STATUSES.decode(legacy.status)
+        );
+    }
+
+    InvoiceDetails toInvoiceDetails(OldInvoiceRecord legacy) {
+        return new InvoiceDetails(
+            legacy.invoiceId,
+            legacy.customerId,
+            legacy.totalAmount,
+            toLocalDate(legacy.creationDate),
+            toLocalDate(legacy.dueDate),
+            INVOICE_TYPES.decode(legacy.invoiceType),
+            PAYMENT_METHODS.decode(legacy.paymentMethod),
+            INVOICE_STATUSES.decode(legacy.status),
+            toLocalDate(legacy.paymentDate),
+            legacy.paidAmount,
+            legacy.paymentReference
+        );
+    }
+
+    // ENUM MAPPING
+
+    String toLegacy(InvoiceType type) {
+        return INVOICE_TYPES.encode(type);
+    }
+
+    String toLegacy(PaymentMethod method) {
+        return PAYMENT_METHODS.encode(method);
+    }
+
+    String toLegacy(InvoiceStatus status) {
+        return INVOICE_STATUSES.encode(status);
+    }
+
+    InvoiceType invoiceTypeFromLegacy(String legacyType) {
+        return INVOICE_TYPES.decode(legacyType);
+    }
+
+    PaymentMethod paymentMethodFromLegacy(String legacyMethod) {
+        return PAYMENT_METHODS.decode(legacyMethod);
+    }
+
+    InvoiceStatus invoiceStatusFromLegacy(String legacyStatus) {
+        return INVOICE_STATUSES.decode(legacyStatus);
+    }
+
+    // DAY CACHE
+
+    private Day today() {
+        Day current = today;
+        long now = clock.millis();
+        if (now < current.startMillis || now >= current.endMillis) {
+            current = dayAt(now);
+            today = current;
+        }
+        return current;
+    }
+
+    // Der Schätzwert trifft fast immer; historische Offsets können ihn um einen Tag oder mehr verfehlen
+    private Day dayAt(long epochMillis) {
+        Day day = day(Math.floorDiv(epochMillis + offsetMillis, DAY_MILLIS));
+        while (epochMillis < day.startMillis) {
+            day = day(day.epochDay - 1);
+        }
+        while (epochMillis >= day.endMillis) {
+            day = day(day.epochDay + 1);
+        }
+        return day;
+    }
+
+    private Day day(long epochDay) {
+        int slot = (int) (epochDay & (CACHE_SIZE - 1));
+        Day day = days[slot];
+        if (day == null || day.epochDay != epochDay) {
+            day = new Day(epochDay, startOfDay(epochDay), startOfDay(epochDay + 1));
+            days[slot] = day;
+        }
+        return day;
+    }
+
+    private long startOfDay(long epochDay) {
+        if (fixedOffset) {
+            return epochDay * DAY_MILLIS - offsetMillis;
+        }
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    // Ein Kalendertag: [startMillis, endMillis) in der Zone des Converters
+    private static final class Day {
+        final long epochDay;
+        final long startMillis;
+        final long endMillis;
+        final LocalDate date;
+
+        Day(long epochDay, long startMillis, long endMillis) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.date = LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    // Mapping Enum <-> Legacy Code: Hinrichtung per Ordinal, Rückrichtung über die wenigen bekannten Codes
+    private static final class CodeTable<E extends Enum<E>> {
+        private final String[] codesByOrdinal;
+        private final E fallback;
+        private String[] codes = new String[0];
+        private E[] values;
+
+        CodeTable(Class<E> type, String defaultCode, E fallback) {
+            E[] constants = type.getEnumConstants();
+            this.codesByOrdinal = new String[constants.length];
+            Arrays.fill(codesByOrdinal, defaultCode);
+            this.fallback = fallback;
+            this.values = Arrays.copyOf(constants, 0);
+        }
+
+        CodeTable<E> map(E value, String code) {
+            codesByOrdinal[value.ordinal()] = code;
+            codes = Arrays.copyOf(codes, codes.length + 1);
+            values = Arrays.copyOf(values, values.length + 1);
+            codes[codes.length - 1] = code;
+            values[values.length - 1] = value;
+            return this;
+        }
+
+        String encode(E value) {
+            return codesByOrdinal[value.ordinal()];
+        }
+
+        // Legacy Codes sind meist dieselben String-Konstanten, daher zuerst der Referenzvergleich
+        E decode(String code) {
+            for (int i = 0; i < codes.length; i++) {
+                if (codes[i] == code) {
+                    return values[i];
+                }
+            }
+            if (code != null) {
+                for (int i = 0; i < codes.length; i++) {
+                    if (codes[i].equals(code)) {
+                        return values[i];
+                    }
+                }
+            }
+            return fallback;
+        }
+    }
+}
@@ -2,7 +2,14 @@ package com.telekom.training.day1.legacyadapter.initial;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 /**
  * LEGACY SYSTEM - Altes Billing System
@@ -13,10 +20,17 @@ import java.util.Date;
  * - Komplizierte Parameter-Strukturen
  * - Unklare Error Handling
  * - Legacy Exception Types
+ *
+ * Die Rechnungen liegen indiziert vor: Hash-Index nach Invoice ID, pro Kunde eine Liste
+ * in Anlagereihenfolge und eine nach Rechnungsdatum sortierte Map für Zeitraum- und Cursor-Abfragen.
+ * Lookups kosten damit O(1) bzw. O(log n + k log k) statt eines Scans über alle Rechnungen.
+ * findInvoicesForCustomer liefert wie bisher in Anlagereihenfolge, nur der Cursor sortiert nach Datum.
+ * Alle Zugriffe synchronisieren auf dem System, damit es von mehreren Threads genutzt werden kann.
  */
 public class LegacyBillingSystem {
     
-    private List<OldInvoiceRecord> invoiceRecords = new ArrayList<>();
+    private final Map<String, OldInvoiceRecord> invoicesById = new HashMap<>();
+    private final Map<String, CustomerInvoices> invoicesByCustomer = new HashMap<>();
     private int nextInvoiceId = 1000;
     
     // Legacy Method mit schlechter API
@@ -25,6 +39,122 @@ public class LegacyBillingSystem {
                                                  String payType, int dueDays) throws LegacyBillingException {
         
         // Legacy validation mit unchecked exceptions
+        validateBill(custId, amt);
+        
+        OldInvoiceRecord invoice = newBill(custId, amt, billDate, billType, payType, dueDays);
+        register(invoice);
+        return invoice;
+    }
+    
+    // Legacy Batch Method mit parallelen Arrays: alle Rechnungen oder keine.
+    // Prüfung und Aufbau laufen ohne Lock, Nummernblock und Indizes in einem einzigen kritischen Abschnitt.
+    public OldInvoiceRecord[] createBillsForCustomers(String[] custIds, double[] amts, Date billDate,
+                                                     String[] billTypes, String[] payTypes,
+                                                     int[] dueDays) throws LegacyBillingException {
+        int count = custIds.length;
+        if (amts.length != count || billTypes.length != count || payTypes.length != count || dueDays.length != count) {
+            throw new LegacyBillingException("INVALID_BATCH", "Batch arrays must have the same length");
+        }
+        for (int i = 0; i < count; i++) {
+            validateBill(custIds[i], amts[i]);
+        }
+        
+        OldInvoiceRecord[] invoices = new OldInvoiceRecord[count];
+        for (int i = 0; i < count; i++) {
+            invoices[i] = newBill(custIds[i], amts[i], billDate, billTypes[i], payTypes[i], dueDays[i]);
+        }
+        register(invoices);
+        return invoices;
+    }
+    
+    // Legacy Method mit verwirrenden Parametern
+    public synchronized List<OldInvoiceRecord> findInvoicesForCustomer(String custId, Date fromDate, 
+                                                         Date toDate, String statusFilter) {
+        CustomerInvoices customerInvoices = invoicesByCustomer.get(custId);
+        if (customerInvoices == null) {
+            return new ArrayList<>();
+        }
+        
+        List<OldInvoiceRecord> result = new ArrayList<>();
+        for (OldInvoiceRecord record : customerInvoices.between(fromDate, toDate)) {
+            if (statusFilter != null && !statusFilter.equals("ALL") && !record.status.equals(statusFilter)) {
+                continue;
+            }
+            
+            result.add(record);
+        }
+        
+        return result;
+    }
+    
+    // Legacy Method mit Cursor: max. maxCount Rechnungen, sortiert nach Datum und Nummer,
+    // die nach der Rechnung (afterDate, afterInvoiceId) kommen. Ohne Cursor ab Anfang.
+    public synchronized List<OldInvoiceRecord> findInvoicesForCustomerAfter(String custId, Date fromDate, Date toDate,
+                                                              String statusFilter, Date afterDate,
+                                                              String afterInvoiceId, int maxCount) {
+        List<OldInvoiceRecord> result = new ArrayList<>();
+        CustomerInvoices customerInvoices = invoicesByCustomer.get(custId);
+        if (customerInvoices == null || maxCount <= 0) {
+            return result;
+        }
+        
+        NavigableMap<InvoiceKey, OldInvoiceRecord> range = customerInvoices.range(fromDate, toDate);
+        if (afterDate != null && afterInvoiceId != null) {
+            range = range.tailMap(InvoiceKey.of(afterDate, afterInvoiceId), false);
+        }
+        for (OldInvoiceRecord record : range.values()) {
+            if (statusFilter != null && !statusFilter.equals("ALL") && !record.status.equals(statusFilter)) {
+                continue;
+            }
+            result.add(record);
+            if (result.size() == maxCount) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    // Legacy Method mit boolean return für Success/Failure
+    public synchronized boolean processPaymentForInvoice(String invoiceId, double paidAmount, 
+                                           Date paymentDate, String paymentRef) {
+        OldInvoiceRecord record = invoicesById.get(invoiceId);
+        if (record == null) {
+            return false; // Invoice not found
+        }
+        if (paidAmount >= record.totalAmount) {
+            record.status = "PAID";
+            record.paymentDate = paymentDate;
+            record.paidAmount = paidAmount;
+            record.paymentReference = paymentRef;
+            return true;
+        } else {
+            record.status = "PARTIAL_PAID";
+            record.paidAmount = paidAmount;
+            record.paymentDate = paymentDate;
+            return false; // Partial payment
+        }
+    }
+    
+    // Legacy Method mit String-based Error Reporting
+    public synchronized String getInvoiceStatusReport(String invoiceId) {
+        OldInvoiceRecord record = invoicesById.get(invoiceId);
+        if (record == null) {
+            return "ERROR: Invoice not found";
+        }
+        StringBuilder report = new StringBuilder();
+        report.append("Invoice: ").append(record.invoiceId).append("\n");
+        report.append("Customer: ").append(record.customerId).append("\n");
+        report.append("Amount: ").append(record.totalAmount).append("\n");
+        report.append("Status: ").append(record.status).append("\n");
+        report.append("Due Date: ").append(record.dueDate).append("\n");
+        if (record.paymentDate != null) {
+            report.append("Paid Date: ").append(record.paymentDate).append("\n");
+            report.append("Paid Amount: ").append(record.paidAmount).append("\n");
+        }
+        return report.toString();
+    }
+    
+    private void validateBill(String custId, double amt) throws LegacyBillingException {
         if (custId == null || custId.length() < 3) {
             throw new LegacyBillingException("INVALID_CUSTOMER_ID", "Customer ID must be at least 3 characters");
         }
@@ -32,10 +162,12 @@ public class LegacyBillingSystem {
         if (amt <= 0) {
             throw new LegacyBillingException("INVALID_AMOUNT", "Amount must be positive");
         }
-        
-        // Legacy Business Logic
+    }
+    
+    // Legacy Business Logic - Rechnungsnummer und Payment Reference kommen erst mit register()
+    private OldInvoiceRecord newBill(String custId, double amt, Date billDate,
+                                     String billType, String payType, int dueDays) {
         OldInvoiceRecord invoice = new OldInvoiceRecord();
-        invoice.invoiceId = "INV-" + (nextInvoiceId++);
         invoice.customerId = custId;
         invoice.totalAmount = amt;
         invoice.creationDate = billDate;
@@ -47,85 +179,84 @@ public class LegacyBillingSystem {
         invoice.dueDate = dueDate;
         
         invoice.status = "PENDING";
-        invoice.paymentReference = generateOldPaymentRef(invoice.invoiceId, custId);
-        
-        invoiceRecords.add(invoice);
         return invoice;
     }
     
-    // Legacy Method mit verwirrenden Parametern
-    public List<OldInvoiceRecord> findInvoicesForCustomer(String custId, Date fromDate, 
-                                                         Date toDate, String statusFilter) {
-        List<OldInvoiceRecord> result = new ArrayList<>();
+    // Vergibt einen zusammenhängenden Nummernblock und indiziert alle Rechnungen unter einem Lock
+    private synchronized void register(OldInvoiceRecord... invoices) {
+        int firstId = nextInvoiceId;
+        nextInvoiceId += invoices.length;
+        for (int i = 0; i < invoices.length; i++) {
+            OldInvoiceRecord invoice = invoices[i];
+            invoice.invoiceId = "INV-" + (firstId + i);
+            invoice.paymentReference = generateOldPaymentRef(invoice.invoiceId, invoice.customerId);
+            invoicesById.put(invoice.invoiceId, invoice);
+            invoicesByCustomer.computeIfAbsent(invoice.customerId, id -> new CustomerInvoices()).add(invoice);
+        }
+    }
+    
+    // Legacy Utility Method
+    private String generateOldPaymentRef(String invoiceId, String customerId) {
+        return "PAY-" + invoiceId.substring(4) + "-" + customerId.substring(0, Math.min(3, customerId.length()));
+    }
+    
+    // Rechnungen eines Kunden: Anlagereihenfolge plus Index nach (Rechnungsdatum, Rechnungsnummer)
+    private static final class CustomerInvoices {
+        private final List<OldInvoiceRecord> all = new ArrayList<>();
+        private final TreeMap<InvoiceKey, OldInvoiceRecord> byCreationDate = new TreeMap<>();
         
-        for (OldInvoiceRecord record : invoiceRecords) {
-            if (!record.customerId.equals(custId)) {
-                continue;
-            }
-            
-            if (fromDate != null && record.creationDate.before(fromDate)) {
-                continue;
-            }
-            
-            if (toDate != null && record.creationDate.after(toDate)) {
-                continue;
+        void add(OldInvoiceRecord record) {
+            all.add(record);
+            byCreationDate.put(InvoiceKey.of(record), record);
+        }
+        
+        // Immer in Anlagereihenfolge wie bisher: Treffer aus dem Datumsindex nach Rechnungsnummer sortiert
+        Collection<OldInvoiceRecord> between(Date fromDate, Date toDate) {
+            if (fromDate == null && toDate == null) {
+                return all;
             }
-            
-            if (statusFilter != null && !statusFilter.equals("ALL") && !record.status.equals(statusFilter)) {
-                continue;
+            List<Map.Entry<InvoiceKey, OldInvoiceRecord>> hits = new ArrayList<>(range(fromDate, toDate).entrySet());
+            hits.sort(Comparator.comparingLong(hit -> hit.getKey().number));
+            List<OldInvoiceRecord> result = new ArrayList<>(hits.size());
+            for (Map.Entry<InvoiceKey, OldInvoiceRecord> hit : hits) {
+                result.add(hit.getValue());
             }
-            
-            result.add(record);
+            return result;
         }
         
-        return result;
-    }
-    
-    // Legacy Method mit boolean return für Success/Failure
-    public boolean processPaymentForInvoice(String invoiceId, double paidAmount, 
-                                           Date paymentDate, String paymentRef) {
-        for (OldInvoiceRecord record : invoiceRecords) {
-            if (record.invoiceId.equals(invoiceId)) {
-                if (paidAmount >= record.totalAmount) {
-                    record.status = "PAID";
-                    record.paymentDate = paymentDate;
-                    record.paidAmount = paidAmount;
-                    record.paymentReference = paymentRef;
-                    return true;
-                } else {
-                    record.status = "PARTIAL_PAID";
-                    record.paidAmount = paidAmount;
-                    record.paymentDate = paymentDate;
-                    return false; // Partial payment
-                }
+        NavigableMap<InvoiceKey, OldInvoiceRecord> range(Date fromDate, Date toDate) {
+            InvoiceKey from = new InvoiceKey(fromDate == null ? Long.MIN_VALUE : fromDate.getTime(), Long.MIN_VALUE);
+            InvoiceKey to = new InvoiceKey(toDate == null ? Long.MAX_VALUE : toDate.getTime(), Long.MAX_VALUE);
+            if (from.compareTo(to) > 0) {
+                return Collections.emptyNavigableMap();
             }
+            return byCreationDate.subMap(from, true, to, true);
         }
-        return false; // Invoice not found
     }
     
-    // Legacy Method mit String-based Error Reporting
-    public String getInvoiceStatusReport(String invoiceId) {
-        for (OldInvoiceRecord record : invoiceRecords) {
-            if (record.invoiceId.equals(invoiceId)) {
-                StringBuilder report = new StringBuilder();
-                report.append("Invoice: ").append(record.invoiceId).append("\n");
-                report.append("Customer: ").append(record.customerId).append("\n");
-                report.append("Amount: ").append(record.totalAmount).append("\n");
-                report.append("Status: ").append(record.status).append("\n");
-                report.append("Due Date: ").append(record.dueDate).append("\n");
-                if (record.paymentDate != null) {
-                    report.append("Paid Date: ").append(record.paymentDate).append("\n");
-                    report.append("Paid Amount: ").append(record.paidAmount).append("\n");
-                }
-                return report.toString();
-            }
+    // Sortierschlüssel: Rechnungsdatum, bei gleichem Datum die Nummer aus "INV-<n>"
+    private static final class InvoiceKey implements Comparable<InvoiceKey> {
+        private final long creationTime;
+        private final long number;
+        
+        InvoiceKey(long creationTime, long number) {
+            this.creationTime = creationTime;
+            this.number = number;
+        }
+        
+        static InvoiceKey of(OldInvoiceRecord record) {
+            return of(record.creationDate, record.invoiceId);
+        }
+        
+        static InvoiceKey of(Date creationDate, String invoiceId) {
+            return new InvoiceKey(creationDate.getTime(), Long.parseLong(invoiceId.substring(4)));
+        }
+        
+        @Override
+        public int compareTo(InvoiceKey other) {
+            int byTime = Long.compare(creationTime, other.creationTime);
+            return byTime != 0 ? byTime : Long.compare(number, other.number);
         }
-        return "ERROR: Invoice not found";
-    }
-    
-    // Legacy Utility Method
-    private String generateOldPaymentRef(String invoiceId, String customerId) {
-        return "PAY-" + invoiceId.substring(4) + "-" + customerId.substring(0, Math.min(3, customerId.length()));
     }
 }
 
@@ -6,8 +6,13 @@ import org.junit.jupiter.api.DisplayName;
 import static org.assertj.core.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
 
 import com.telekom.training.day1.legacyadapter.initial.LegacyBillingSystem;
+import com.telekom.training.day1.legacyadapter.initial.OldInvoiceRecord;
 
 /**
  * Vereinfachte Tests die die Konzepte demonstrieren ohne komplexe Package-Access
@@ -134,6 +139,54 @@ class LegacyAdapterSimpleTest {
         // Das Legacy System ist komplett isoliert im LegacyBillingAdapter!
     }
 
+    @Test
+    @DisplayName("Legacy System: Indizierte Suche liefert dieselben Rechnungen wie ein Scan")
+    void testIndexedLookupsMatchScan() throws Exception {
+        Random random = new Random(17);
+        long day = 24L * 60 * 60 * 1000;
+        long start = new Date(0).getTime() + 19_000 * day;
+        List<OldInvoiceRecord> created = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String customer = "CUST-" + random.nextInt(10);
+            Date billDate = new Date(start + random.nextInt(60) * day);
+            created.add(legacySystem.createBillForCustomer(customer, 10 + random.nextInt(100), billDate,
+                "MONTHLY", "DD", 14));
+        }
+        for (int i = 0; i < 100; i++) {
+            OldInvoiceRecord record = created.get(random.nextInt(created.size()));
+            legacySystem.processPaymentForInvoice(record.invoiceId, random.nextBoolean() ? 1 : 200,
+                new Date(), "REF");
+        }
+        
+        String[] statusFilters = {null, "ALL", "PENDING", "PAID", "PARTIAL_PAID"};
+        for (int i = 0; i < 200; i++) {
+            String customer = "CUST-" + random.nextInt(11);
+            Date from = random.nextInt(4) == 0 ? null : new Date(start + random.nextInt(60) * day);
+            Date to = random.nextInt(4) == 0 ? null : new Date(start + random.nextInt(60) * day);
+            String status = statusFilters[random.nextInt(statusFilters.length)];
+            
+            List<OldInvoiceRecord> expected = new ArrayList<>();
+            for (OldInvoiceRecord record : created) {
+                if (record.customerId.equals(customer)
+                    && (from == null || !record.creationDate.before(from))
+                    && (to == null || !record.creationDate.after(to))
+                    && (status == null || status.equals("ALL") || record.status.equals(status))) {
+                    expected.add(record);
+                }
+            }
+            
+            // Legacy-Vertrag: Anlagereihenfolge, auch bei Suche mit Zeitraum
+            assertThat(legacySystem.findInvoicesForCustomer(customer, from, to, status))
+                .containsExactlyElementsOf(expected);
+        }
+        
+        OldInvoiceRecord paid = created.get(0);
+        assertThat(legacySystem.processPaymentForInvoice(paid.invoiceId, 500, new Date(), "REF-1")).isTrue();
+        assertThat(legacySystem.getInvoiceStatusReport(paid.invoiceId)).contains("Status: PAID");
+        assertThat(legacySystem.processPaymentForInvoice("INV-UNKNOWN", 500, new Date(), "REF-2")).isFalse();
+        assertThat(legacySystem.getInvoiceStatusReport("INV-UNKNOWN")).startsWith("ERROR:");
+    }
+
     @Test
     @DisplayName("Code Quality Demonstration: Separation of Concerns")
     void testSeparationOfConcerns() {
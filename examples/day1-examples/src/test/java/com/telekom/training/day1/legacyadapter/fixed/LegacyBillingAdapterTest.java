@@ -0,0 +1,219 @@
+package com.telekom.training.day1.legacyadapter.fixed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.telekom.training.day1.legacyadapter.initial.LegacyBillingSystem;
+
+/**
+ * Tests für den LegacyBillingAdapter mit Zugriff auf die package-privaten Request/Response Typen
+ */
+class LegacyBillingAdapterTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private LegacyBillingSystem legacySystem;
+    private LegacyBillingAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        legacySystem = new LegacyBillingSystem();
+        adapter = new LegacyBillingAdapter(legacySystem);
+    }
+
+    @Test
+    @DisplayName("Seitenweise Suche: Continuation Tokens liefern alle Rechnungen genau einmal")
+    void testInvoicePaging() throws Exception {
+        Random random = new Random(5);
+        for (int i = 0; i < 250; i++) {
+            createBill("CUST-B2B", START.plusDays(random.nextInt(90)));
+            createBill("CUST-OTHER", START.plusDays(random.nextInt(90)));
+        }
+        InvoiceSearchRequest request = new InvoiceSearchRequest("CUST-B2B", START.plusDays(10),
+            START.plusDays(80), InvoiceStatus.ALL);
+
+        List<Invoice> paged = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String token = null;
+        do {
+            InvoicePage page = adapter.findInvoicePage(request, 40, token);
+            paged.addAll(page.getInvoices());
+            pageSizes.add(page.getInvoices().size());
+            token = page.getContinuationToken();
+        } while (token != null);
+
+        List<String> expected = ids(adapter.findInvoices(request));
+        assertThat(ids(paged)).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(pageSizes.subList(0, pageSizes.size() - 1)).allMatch(size -> size == 40);
+        assertThat(paged).isSortedAccordingTo((a, b) -> a.getCreationDate().compareTo(b.getCreationDate()));
+        assertThat(paged).allMatch(invoice -> invoice.getCustomerId().equals("CUST-B2B"));
+    }
+
+    @Test
+    @DisplayName("Stream lädt Seiten lazy und filtert nach Status")
+    void testStreamInvoices() throws Exception {
+        for (int i = 0; i < 120; i++) {
+            String invoiceId = createBill("CUST-B2B", START.plusDays(i % 30));
+            if (i % 3 == 0) {
+                legacySystem.processPaymentForInvoice(invoiceId, 1000, new Date(), "REF-" + i);
+            }
+        }
+        InvoiceSearchRequest paidOnly = new InvoiceSearchRequest("CUST-B2B", null, null, InvoiceStatus.PAID);
+
+        assertThat(ids(adapter.streamInvoices(paidOnly, 7).collect(Collectors.toList())))
+            .containsExactlyInAnyOrderElementsOf(ids(adapter.findInvoices(paidOnly)))
+            .hasSize(40);
+        // Nur so viele Seiten wie nötig: die ersten 5 Rechnungen kommen aus der ersten Seite
+        assertThat(adapter.streamInvoices(paidOnly, 5).limit(5).count()).isEqualTo(5);
+        assertThat(adapter.streamInvoices(new InvoiceSearchRequest("CUST-NONE", null, null, InvoiceStatus.ALL), 5))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Neue Rechnungen zwischen zwei Seiten führen nicht zu Duplikaten")
+    void testPagingStableUnderInserts() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            createBill("CUST-B2B", START.plusDays(i));
+        }
+        InvoiceSearchRequest request = new InvoiceSearchRequest("CUST-B2B", null, null, InvoiceStatus.ALL);
+        InvoicePage first = adapter.findInvoicePage(request, 5, null);
+        createBill("CUST-B2B", START); // sortiert vor die bereits gelieferte Seite
+        createBill("CUST-B2B", START.plusDays(20));
+        InvoicePage second = adapter.findInvoicePage(request, 5, first.getContinuationToken());
+        InvoicePage third = adapter.findInvoicePage(request, 5, second.getContinuationToken());
+
+        assertThat(ids(second.getInvoices())).doesNotContainAnyElementsOf(ids(first.getInvoices()));
+        assertThat(third.getInvoices()).hasSize(1);
+        assertThat(third.hasMore()).isFalse();
+        for (String token : new String[] {"kaputt", "123:abc", "123:INV-x", "123:INV-", "abc:INV-1"}) {
+            assertThatThrownBy(() -> adapter.findInvoicePage(request, 5, token))
+                .isInstanceOf(BillingServiceException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Bulk Create: parallele Batches bekommen eindeutige, blockweise vergebene Rechnungsnummern")
+    void testCreateInvoicesConcurrently() throws Exception {
+        int threads = 8;
+        int batchesPerThread = 50;
+        int batchSize = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Invoice>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads * batchesPerThread; t++) {
+                String customerId = "CUST-" + (t % threads);
+                futures.add(executor.submit(() -> adapter.createInvoices(requests(customerId, batchSize))));
+            }
+            Set<String> ids = new HashSet<>();
+            for (Future<List<Invoice>> future : futures) {
+                List<Invoice> batch = future.get(10, TimeUnit.SECONDS);
+                assertThat(batch).hasSize(batchSize);
+                // Ein Batch bekommt einen zusammenhängenden Nummernblock
+                int first = Integer.parseInt(batch.get(0).getInvoiceId().substring(4));
+                for (int i = 0; i < batchSize; i++) {
+                    assertThat(batch.get(i).getInvoiceId()).isEqualTo("INV-" + (first + i));
+                }
+                ids.addAll(ids(batch));
+            }
+            assertThat(ids).hasSize(threads * batchesPerThread * batchSize);
+        } finally {
+            executor.shutdownNow();
+        }
+        InvoiceSearchRequest request = new InvoiceSearchRequest("CUST-3", null, null, InvoiceStatus.OPEN);
+        assertThat(adapter.findInvoices(request)).hasSize(batchesPerThread * batchSize);
+    }
+
+    @Test
+    @DisplayName("Bulk Create: ein ungültiger Auftrag verwirft den ganzen Batch")
+    void testCreateInvoicesAllOrNothing() {
+        List<CreateInvoiceRequest> batch = new ArrayList<>(requests("CUST-B2B", 5));
+        batch.add(new CreateInvoiceRequest("CUST-B2B", -1, LocalDate.now().plusDays(14),
+            InvoiceType.ADJUSTMENT, PaymentMethod.BANK_TRANSFER));
+
+        assertThatThrownBy(() -> adapter.createInvoices(batch))
+            .isInstanceOf(BillingServiceException.class)
+            .hasRootCauseMessage("Amount must be positive");
+        assertThat(adapter.findInvoices(new InvoiceSearchRequest("CUST-B2B", null, null, InvoiceStatus.ALL))).isEmpty();
+        assertThat(adapter.createInvoices(new ArrayList<>())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Converter: Tages-Cache liefert dieselben Daten wie java.time, auch über Zeitumstellungen")
+    void testConverterMatchesJavaTime() {
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        Clock clock = Clock.fixed(Instant.parse("2024-03-31T01:30:00Z"), berlin);
+        LegacyInvoiceConverter converter = new LegacyInvoiceConverter(berlin, clock);
+
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            Date date = new Date(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli() + (long) (random.nextDouble() * 2e11));
+            LocalDate expected = date.toInstant().atZone(berlin).toLocalDate();
+            assertThat(converter.toLocalDate(date)).isEqualTo(expected);
+            assertThat(converter.toLegacyDate(expected).toInstant()).isEqualTo(expected.atStartOfDay(berlin).toInstant());
+        }
+        // 31.03.2024 hat wegen der Sommerzeit nur 23 Stunden
+        assertThat(converter.toLocalDate(new Date(Instant.parse("2024-03-31T21:59:59Z").toEpochMilli())))
+            .isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(converter.toLocalDate(new Date(Instant.parse("2024-03-31T22:00:00Z").toEpochMilli())))
+            .isEqualTo(LocalDate.of(2024, 4, 1));
+        assertThat(converter.startOfToday().toInstant()).isEqualTo(Instant.parse("2024-03-30T23:00:00Z"));
+        assertThat(converter.daysFromToday(LocalDate.of(2024, 4, 14))).isEqualTo(14);
+        assertThat(converter.toLocalDate(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Converter: Enum Mapping per Tabelle entspricht dem bisherigen switch")
+    void testConverterEnumMapping() {
+        LegacyInvoiceConverter converter = new LegacyInvoiceConverter();
+
+        assertThat(converter.toLegacy(InvoiceType.INSTALLATION)).isEqualTo("INSTALL");
+        assertThat(converter.toLegacy(InvoiceType.OTHER)).isEqualTo("OTHER");
+        assertThat(converter.toLegacy(PaymentMethod.PAYPAL)).isEqualTo("PP");
+        assertThat(converter.toLegacy(InvoiceStatus.OPEN)).isEqualTo("PENDING");
+        assertThat(converter.toLegacy(InvoiceStatus.CANCELLED)).isEqualTo("ALL");
+        // Auch Codes, die nicht dieselbe String-Instanz sind
+        assertThat(converter.invoiceTypeFromLegacy(new String("TERM"))).isEqualTo(InvoiceType.TERMINATION);
+        assertThat(converter.paymentMethodFromLegacy("XX")).isEqualTo(PaymentMethod.OTHER);
+        assertThat(converter.invoiceStatusFromLegacy("PARTIAL_PAID")).isEqualTo(InvoiceStatus.PARTIALLY_PAID);
+        assertThat(converter.invoiceStatusFromLegacy("ALL")).isEqualTo(InvoiceStatus.OPEN);
+        for (InvoiceType type : InvoiceType.values()) {
+            assertThat(converter.invoiceTypeFromLegacy(converter.toLegacy(type))).isEqualTo(type);
+        }
+    }
+
+    private String createBill(String customerId, LocalDate billDate) throws Exception {
+        Date date = Date.from(billDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return legacySystem.createBillForCustomer(customerId, 49.95, date, "MONTHLY", "DD", 14).invoiceId;
+    }
+
+    private static List<CreateInvoiceRequest> requests(String customerId, int count) {
+        List<CreateInvoiceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new CreateInvoiceRequest(customerId, 10 + i, LocalDate.now().plusDays(14),
+                InvoiceType.MONTHLY_BILL, PaymentMethod.DIRECT_DEBIT));
+        }
+        return requests;
+    }
+
+    private static List<String> ids(List<Invoice> invoices) {
+        return invoices.stream().map(Invoice::getInvoiceId).collect(Collectors.toList());
+    }
+}
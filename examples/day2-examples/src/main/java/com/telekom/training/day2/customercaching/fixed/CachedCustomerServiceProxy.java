@@ -1,101 +1,498 @@
 package com.telekom.training.day2.customercaching.fixed;
 
 import com.telekom.training.day2.customercaching.initial.Customer;
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * Proxy Pattern: Proxy
- * Controls access to RealSubject and adds caching functionality
+ * Controls access to RealSubject and adds caching functionality.
+ * Thread-safe and size-bounded: entries live in a {@link SegmentedLruCache}.
+ * Optional refresh-ahead mode reloads hot entries in the background before callers have to wait.
+ * Expiry uses System.nanoTime() deadlines; a {@link TimerWheel} removes expired entries without a read.
+ * With an {@link OffHeapCustomerStore} configured, the on-heap cache acts as a small L1: its evictions
+ * are demoted to the off-heap L2 and L1 misses are promoted back from there.
+ * In write-behind mode updates go to the cache immediately and reach the database later, coalesced
+ * and batched by a {@link WriteBehindQueue}; close() flushes what is still pending. While an update
+ * is pending, reads of that customer never go to the database.
  */
-public class CachedCustomerServiceProxy implements CustomerService {
-    
+public class CachedCustomerServiceProxy implements CustomerService, AutoCloseable {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private static final String BASIC_KEY_PREFIX = "basic_";
+    private static final String HISTORY_KEY_PREFIX = "history_";
+
     private final CustomerService realService;
-    private final Map<String, CacheEntry> cache;
-    private final long cacheTimeoutMs;
-    private long cacheHits = 0;
-    private long cacheMisses = 0;
+    private final SegmentedLruCache<String, CacheEntry> cache;
+    private final TimerWheel<String> expiryWheel;
+    private final OffHeapCustomerStore offHeapTier;
+    private final long expireAfterNanos;
+    private final long refreshAfterNanos;
+    private final boolean refreshAhead;
+    private final Executor refreshExecutor;
+    private final WriteBehindQueue writeBehind;
+    private final boolean flushOnClose;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder offHeapHits = new LongAdder();
+    private final ConcurrentMap<String, CompletableFuture<Customer>> inFlightLoads = new ConcurrentHashMap<>();
 
     public CachedCustomerServiceProxy(CustomerService realService, long cacheTimeoutMs) {
-        this.realService = realService;
-        this.cache = new HashMap<>();
-        this.cacheTimeoutMs = cacheTimeoutMs;
+        this(realService, cacheTimeoutMs, DEFAULT_MAXIMUM_SIZE, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public CachedCustomerServiceProxy(CustomerService realService, long cacheTimeoutMs,
+                                      long maximumSize, int concurrencyLevel) {
+        this(builder(realService)
+            .withCacheTimeoutMs(cacheTimeoutMs)
+            .withMaximumSize(maximumSize)
+            .withConcurrencyLevel(concurrencyLevel));
+    }
+
+    private CachedCustomerServiceProxy(Builder builder) {
+        this.realService = builder.realService;
+        this.expiryWheel = new TimerWheel<>(System.nanoTime());
+        this.offHeapTier = builder.offHeapCapacityBytes > 0
+            ? new OffHeapCustomerStore(builder.offHeapCapacityBytes)
+            : null;
+        this.cache = new SegmentedLruCache<>(builder.maximumSize, builder.concurrencyLevel, this::onEviction);
+        this.refreshExecutor = builder.refreshExecutor;
+        this.refreshAhead = refreshExecutor != null;
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(builder.cacheTimeoutMs);
+        if (refreshAhead) {
+            this.refreshAfterNanos = (long) (timeoutNanos * builder.refreshAheadFraction);
+            this.expireAfterNanos = timeoutNanos + TimeUnit.MILLISECONDS.toNanos(builder.maxStalenessMs);
+        } else {
+            this.refreshAfterNanos = Long.MAX_VALUE;
+            this.expireAfterNanos = timeoutNanos;
+        }
+        this.writeBehind = builder.flushScheduler != null
+            ? new WriteBehindQueue(realService, builder.maxBatchSize, builder.maxPendingWrites,
+                builder.flushIntervalMs, builder.flushScheduler)
+            : null;
+        this.flushOnClose = builder.flushOnClose;
+        if (builder.cleanupScheduler != null) {
+            builder.cleanupScheduler.scheduleAtFixedRate(this::cleanUp,
+                builder.cleanupIntervalMs, builder.cleanupIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static Builder builder(CustomerService realService) {
+        return new Builder(realService);
     }
 
     @Override
     public Customer getCustomer(String customerId) {
-        String cacheKey = "basic_" + customerId;
+        String cacheKey = BASIC_KEY_PREFIX + customerId;
         
         // Check cache first
-        CacheEntry entry = cache.get(cacheKey);
-        if (entry != null && !entry.isExpired()) {
-            cacheHits++;
-            System.out.println("⚡ CACHE HIT for customer: " + customerId + " (hits: " + cacheHits + ")");
-            return entry.getCustomer();
+        Customer cached = getIfUsable(cacheKey, customerId, realService::getCustomer);
+        if (cached != null) {
+            cacheHits.increment();
+            System.out.println("⚡ CACHE HIT for customer: " + customerId + " (hits: " + cacheHits.sum() + ")");
+            return cached;
         }
         
         // Cache miss - call real service
-        cacheMisses++;
-        System.out.println("💾 CACHE MISS for customer: " + customerId + " (misses: " + cacheMisses + ")");
+        cacheMisses.increment();
+        System.out.println("💾 CACHE MISS for customer: " + customerId + " (misses: " + cacheMisses.sum() + ")");
         
-        Customer customer = realService.getCustomer(customerId);
-        cache.put(cacheKey, new CacheEntry(customer));
-        
-        return customer;
+        return loadSingleFlight(cacheKey, customerId, realService::getCustomer);
     }
 
     @Override
     public Customer getCustomerWithTariffHistory(String customerId) {
-        String cacheKey = "history_" + customerId;
+        String cacheKey = HISTORY_KEY_PREFIX + customerId;
         
-        CacheEntry entry = cache.get(cacheKey);
-        if (entry != null && !entry.isExpired()) {
-            cacheHits++;
-            System.out.println("⚡ CACHE HIT for customer with history: " + customerId + " (hits: " + cacheHits + ")");
-            return entry.getCustomer();
+        Customer cached = getIfUsable(cacheKey, customerId, realService::getCustomerWithTariffHistory);
+        if (cached != null) {
+            cacheHits.increment();
+            System.out.println("⚡ CACHE HIT for customer with history: " + customerId
+                + " (hits: " + cacheHits.sum() + ")");
+            return cached;
         }
         
-        cacheMisses++;
-        System.out.println("💾 CACHE MISS for customer with history: " + customerId + " (misses: " + cacheMisses + ")");
-        
-        Customer customer = realService.getCustomerWithTariffHistory(customerId);
-        cache.put(cacheKey, new CacheEntry(customer));
+        cacheMisses.increment();
+        System.out.println("💾 CACHE MISS for customer with history: " + customerId
+            + " (misses: " + cacheMisses.sum() + ")");
         
-        return customer;
+        return loadSingleFlight(cacheKey, customerId, realService::getCustomerWithTariffHistory);
+    }
+
+    /**
+     * Serves hits from the cache and fetches all missing customers with one batch call.
+     * Keys already being loaded by another caller are awaited instead of fetched again.
+     */
+    @Override
+    public Map<String, Customer> getCustomers(Collection<String> customerIds) {
+        Map<String, Customer> result = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Customer>> ownLoads = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Customer>> foreignLoads = new LinkedHashMap<>();
+
+        for (String customerId : customerIds) {
+            if (result.containsKey(customerId) || ownLoads.containsKey(customerId)
+                    || foreignLoads.containsKey(customerId)) {
+                continue;
+            }
+            String cacheKey = BASIC_KEY_PREFIX + customerId;
+            Customer cached = getIfUsable(cacheKey, customerId, realService::getCustomer);
+            if (cached != null) {
+                cacheHits.increment();
+                result.put(customerId, cached);
+                continue;
+            }
+
+            cacheMisses.increment();
+            CompletableFuture<Customer> future = new CompletableFuture<>();
+            CompletableFuture<Customer> inFlight = inFlightLoads.putIfAbsent(cacheKey, future);
+            if (inFlight != null) {
+                coalescedLoads.increment();
+                foreignLoads.put(customerId, inFlight);
+                continue;
+            }
+            // An update queued between our cache check and registering the future is newer than the database
+            Customer pending = getPendingUpdate(cacheKey, future, customerId);
+            if (pending != null) {
+                result.put(customerId, pending);
+            } else {
+                ownLoads.put(customerId, future);
+            }
+        }
+
+        System.out.println("📦 BATCH LOOKUP of " + customerIds.size() + " customers: " + result.size()
+            + " cached, " + ownLoads.size() + " loaded, " + foreignLoads.size() + " coalesced");
+
+        if (!ownLoads.isEmpty()) {
+            result.putAll(loadBatch(ownLoads));
+        }
+        for (Map.Entry<String, CompletableFuture<Customer>> load : foreignLoads.entrySet()) {
+            result.put(load.getKey(), awaitLoad(load.getValue()));
+        }
+        return result;
+    }
+
+    private Map<String, Customer> loadBatch(Map<String, CompletableFuture<Customer>> ownLoads) {
+        Map<String, Customer> loaded;
+        try {
+            loaded = realService.getCustomers(ownLoads.keySet());
+        } catch (RuntimeException e) {
+            for (Map.Entry<String, CompletableFuture<Customer>> load : ownLoads.entrySet()) {
+                inFlightLoads.remove(BASIC_KEY_PREFIX + load.getKey(), load.getValue());
+                load.getValue().completeExceptionally(e);
+            }
+            throw e;
+        }
+
+        for (Map.Entry<String, CompletableFuture<Customer>> load : ownLoads.entrySet()) {
+            String customerId = load.getKey();
+            String cacheKey = BASIC_KEY_PREFIX + customerId;
+            Customer customer = loaded.get(customerId);
+            boolean stillCurrent = inFlightLoads.remove(cacheKey, load.getValue());
+            if (customer == null) {
+                // Single lookups waiting on this key expect the same error as the database gives
+                load.getValue().completeExceptionally(new RuntimeException("Customer not found: " + customerId));
+                continue;
+            }
+            if (stillCurrent) {
+                putEntry(cacheKey, customer);
+            }
+            load.getValue().complete(customer);
+        }
+        return loaded;
     }
 
     @Override
     public boolean updateCustomer(Customer customer) {
-        // Update invalidates cache
+        if (writeBehind == null) {
+            // Update invalidates cache
+            invalidateCustomerCache(customer.getCustomerId());
+            return realService.updateCustomer(customer);
+        }
+        // Write-behind: the cache holds the new state right away, the database gets it with the next flush.
+        // Queue first: if the backpressure flush fails, the cache must not run ahead of the database.
+        // Invalidate after queueing: a load registered after the invalidation then sees the pending update.
+        writeBehind.enqueue(customer);
         invalidateCustomerCache(customer.getCustomerId());
-        
-        return realService.updateCustomer(customer);
+        putEntry(BASIC_KEY_PREFIX + customer.getCustomerId(), customer);
+        System.out.println("✍️  WRITE-BEHIND queued update for customer: " + customer.getCustomerId());
+        return true;
+    }
+
+    @Override
+    public boolean updateCustomers(Collection<Customer> customers) {
+        if (writeBehind == null) {
+            for (Customer customer : customers) {
+                invalidateCustomerCache(customer.getCustomerId());
+            }
+            return realService.updateCustomers(customers);
+        }
+        for (Customer customer : customers) {
+            updateCustomer(customer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes all pending write-behind updates to the real service. No-op without write-behind.
+     */
+    public void flush() {
+        if (writeBehind != null) {
+            writeBehind.flushAll();
+        }
+    }
+
+    /**
+     * Stops the write-behind flush task; pending updates are written first unless
+     * the proxy was built with withFlushOnClose(false).
+     */
+    @Override
+    public void close() {
+        if (writeBehind != null) {
+            int dropped = writeBehind.shutdown(flushOnClose);
+            if (dropped > 0) {
+                System.out.println("⚠️  WRITE-BEHIND dropped " + dropped + " pending updates on close");
+            }
+        }
+    }
+
+    /**
+     * Returns the cached customer unless it is past its staleness bound.
+     * Entries older than the refresh threshold are still served, but trigger a background reload.
+     */
+    private Customer getIfUsable(String cacheKey, String customerId, Function<String, Customer> loader) {
+        CacheEntry entry = cache.get(cacheKey);
+        if (entry == null && offHeapTier != null) {
+            entry = promoteFromOffHeap(cacheKey);
+        }
+        if (entry == null || entry.isExpired()) {
+            // Not cached, or evicted/expired before the flush: a pending update is newer than the
+            // database for the basic and the history view alike, so no load may happen until it is written
+            return writeBehind != null ? writeBehind.getPending(customerId) : null;
+        }
+        if (entry.needsRefresh()) {
+            scheduleRefresh(cacheKey, customerId, loader);
+        }
+        return entry.getCustomer();
+    }
+
+    private void scheduleRefresh(String cacheKey, String customerId, Function<String, Customer> loader) {
+        CompletableFuture<Customer> future = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(cacheKey, future) != null) {
+            return; // Already being (re)loaded
+        }
+        if (getPendingUpdate(cacheKey, future, customerId) != null) {
+            return; // The database still has the old row, a reload would overwrite the pending update
+        }
+
+        refreshes.increment();
+        System.out.println("🔄 REFRESH-AHEAD for customer: " + customerId);
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Customer customer = loader.apply(customerId);
+                    if (inFlightLoads.remove(cacheKey, future)) {
+                        putEntry(cacheKey, customer);
+                    }
+                    future.complete(customer);
+                } catch (RuntimeException e) {
+                    inFlightLoads.remove(cacheKey, future);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor saturated or shut down: keep serving the current entry, a later hit retries
+            inFlightLoads.remove(cacheKey, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Single-flight loading: concurrent misses for the same key share one in-flight future,
+     * so only the first caller goes to the real service and the others wait for its result.
+     */
+    private Customer loadSingleFlight(String cacheKey, String customerId, Function<String, Customer> loader) {
+        CompletableFuture<Customer> future = new CompletableFuture<>();
+        CompletableFuture<Customer> inFlight = inFlightLoads.putIfAbsent(cacheKey, future);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            System.out.println("🔗 LOAD COALESCED for customer: " + customerId);
+            return awaitLoad(inFlight);
+        }
+
+        Customer pending = getPendingUpdate(cacheKey, future, customerId);
+        if (pending != null) {
+            return pending;
+        }
+        try {
+            // Another leader may have finished between our cache check and registering the future
+            CacheEntry entry = cache.get(cacheKey);
+            Customer customer = entry != null && !entry.isExpired()
+                ? entry.getCustomer()
+                : loader.apply(customerId);
+            // Only publish if no invalidation happened while loading
+            if (inFlightLoads.remove(cacheKey, future)) {
+                putEntry(cacheKey, customer);
+            }
+            future.complete(customer);
+            return customer;
+        } catch (RuntimeException e) {
+            inFlightLoads.remove(cacheKey, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Checked by a load leader right after registering its future: an update queued since the caller's
+     * cache check is newer than the database. The leader then hands out the pending update instead of
+     * loading and publishes nothing. Updates queue before they invalidate, so no update can slip past.
+     */
+    private Customer getPendingUpdate(String cacheKey, CompletableFuture<Customer> future, String customerId) {
+        Customer pending = writeBehind != null ? writeBehind.getPending(customerId) : null;
+        if (pending != null) {
+            inFlightLoads.remove(cacheKey, future);
+            future.complete(pending);
+        }
+        return pending;
+    }
+
+    private CacheEntry promoteFromOffHeap(String cacheKey) {
+        OffHeapCustomerStore.Entry stored = offHeapTier.get(cacheKey);
+        if (stored == null) {
+            return null;
+        }
+        if (System.nanoTime() - stored.getExpiresAtNanos() >= 0) {
+            offHeapTier.remove(cacheKey);
+            return null;
+        }
+        offHeapHits.increment();
+        // Keep the original deadline: promotion must not extend the entry's lifetime
+        long loadedAtNanos = stored.getExpiresAtNanos() - expireAfterNanos;
+        CacheEntry entry = new CacheEntry(cacheKey, stored.getCustomer(), loadedAtNanos);
+        putEntry(entry);
+        return entry;
+    }
+
+    // L1 eviction: demote still-valid entries to the off-heap tier instead of dropping them
+    private void onEviction(String cacheKey, CacheEntry entry) {
+        expiryWheel.deschedule(entry);
+        if (offHeapTier != null && !entry.isExpired()) {
+            offHeapTier.put(cacheKey, entry.getCustomer(), entry.getDeadlineNanos());
+        }
+    }
+
+    private void putEntry(String cacheKey, Customer customer) {
+        putEntry(new CacheEntry(cacheKey, customer));
+    }
+
+    private void putEntry(CacheEntry entry) {
+        String cacheKey = entry.getKey();
+        CacheEntry previous = cache.put(cacheKey, entry);
+        expiryWheel.schedule(entry);
+        if (previous != null) {
+            expiryWheel.deschedule(previous);
+        }
+        // Writes drive the wheel, so expired customers are released even if nobody reads them
+        cleanUp();
+    }
+
+    /**
+     * Removes all entries whose deadline has passed. Called on every write and, if configured,
+     * periodically by the cleanup scheduler. Returns immediately if another thread is already cleaning.
+     */
+    public void cleanUp() {
+        List<TimerWheel.Node<String>> expired = expiryWheel.tryAdvance(System.nanoTime());
+        if (expired == null) {
+            return;
+        }
+        for (TimerWheel.Node<String> node : expired) {
+            if (cache.remove(node.getKey(), (CacheEntry) node)) {
+                expirations.increment();
+            }
+        }
+    }
+
+    private static Customer awaitLoad(CompletableFuture<Customer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 
     private void invalidateCustomerCache(String customerId) {
-        cache.remove("basic_" + customerId);
-        cache.remove("history_" + customerId);
+        inFlightLoads.remove(BASIC_KEY_PREFIX + customerId);
+        inFlightLoads.remove(HISTORY_KEY_PREFIX + customerId);
+        removeEntry(BASIC_KEY_PREFIX + customerId);
+        removeEntry(HISTORY_KEY_PREFIX + customerId);
         System.out.println("🗑️  CACHE INVALIDATED for customer: " + customerId);
     }
 
+    private void removeEntry(String cacheKey) {
+        CacheEntry removed = cache.remove(cacheKey);
+        if (removed != null) {
+            expiryWheel.deschedule(removed);
+        }
+        if (offHeapTier != null) {
+            offHeapTier.remove(cacheKey);
+        }
+    }
+
     public void clearCache() {
         cache.clear();
+        expiryWheel.clear();
+        if (offHeapTier != null) {
+            offHeapTier.clear();
+        }
         System.out.println("🗑️  CACHE CLEARED");
     }
 
     public CacheStats getCacheStats() {
-        return new CacheStats(cacheHits, cacheMisses, cache.size());
+        return new CacheStats(cacheHits.sum(), cacheMisses.sum(), cache.size(),
+            cache.getEvictionCount(), cache.segmentSizes(), coalescedLoads.sum(), refreshes.sum(),
+            expirations.sum(), offHeapHits.sum(),
+            offHeapTier != null ? offHeapTier.size() : 0,
+            offHeapTier != null ? offHeapTier.getBytesUsed() : 0,
+            offHeapTier != null ? offHeapTier.getFragmentation() : 0.0,
+            writeBehind != null ? writeBehind.getPendingCount() : 0,
+            writeBehind != null ? writeBehind.getCoalescedWrites() : 0);
     }
 
-    // Inner class for cache entry
-    private class CacheEntry {
+    // Inner class for cache entry; deadlines are primitive nanoTime values, so checks allocate nothing
+    private class CacheEntry extends TimerWheel.Node<String> {
         private final Customer customer;
-        private final LocalDateTime timestamp;
+        private final long refreshAtNanos;
 
-        public CacheEntry(Customer customer) {
+        public CacheEntry(String cacheKey, Customer customer) {
+            this(cacheKey, customer, System.nanoTime());
+        }
+
+        private CacheEntry(String cacheKey, Customer customer, long loadedAtNanos) {
+            // Deadline is past TTL plus the allowed staleness: then callers must block on a fresh load
+            super(cacheKey, loadedAtNanos + expireAfterNanos);
             this.customer = customer;
-            this.timestamp = LocalDateTime.now();
+            this.refreshAtNanos = refreshAhead ? loadedAtNanos + refreshAfterNanos : 0;
         }
 
         public Customer getCustomer() {
@@ -103,7 +500,117 @@ public class CachedCustomerServiceProxy implements CustomerService {
         }
 
         public boolean isExpired() {
-            return LocalDateTime.now().isAfter(timestamp.plusNanos(cacheTimeoutMs * 1_000_000));
+            return System.nanoTime() - getDeadlineNanos() >= 0;
+        }
+
+        public boolean needsRefresh() {
+            return refreshAhead && System.nanoTime() - refreshAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Builder for proxies with non-default sizing or refresh-ahead behaviour.
+     */
+    public static class Builder {
+        private final CustomerService realService;
+        private long cacheTimeoutMs = 60_000;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private int concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+        private double refreshAheadFraction = 1.0;
+        private long maxStalenessMs = 0;
+        private Executor refreshExecutor;
+        private ScheduledExecutorService cleanupScheduler;
+        private long cleanupIntervalMs;
+        private long offHeapCapacityBytes;
+        private int maxBatchSize;
+        private long flushIntervalMs;
+        private int maxPendingWrites;
+        private ScheduledExecutorService flushScheduler;
+        private boolean flushOnClose = true;
+
+        private Builder(CustomerService realService) {
+            this.realService = realService;
+        }
+
+        public Builder withCacheTimeoutMs(long cacheTimeoutMs) {
+            this.cacheTimeoutMs = cacheTimeoutMs;
+            return this;
+        }
+
+        public Builder withMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder withConcurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * Reload entries asynchronously once they reach the given fraction of their TTL.
+         * Callers keep getting the current value while the reload runs on the executor.
+         */
+        public Builder withRefreshAhead(double refreshAheadFraction, Executor refreshExecutor) {
+            if (refreshAheadFraction <= 0.0 || refreshAheadFraction > 1.0) {
+                throw new IllegalArgumentException("refreshAheadFraction must be in (0, 1]: " + refreshAheadFraction);
+            }
+            this.refreshAheadFraction = refreshAheadFraction;
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
+        /**
+         * Stale-while-revalidate: how long past the TTL an entry may still be served while it is
+         * being refreshed. Beyond this bound callers block. Only effective with refresh-ahead.
+         */
+        public Builder withMaxStalenessMs(long maxStalenessMs) {
+            this.maxStalenessMs = maxStalenessMs;
+            return this;
+        }
+
+        /**
+         * Periodically removes expired entries, in addition to the cleanup done on every write.
+         */
+        public Builder withExpiryCleanup(ScheduledExecutorService cleanupScheduler, long cleanupIntervalMs) {
+            this.cleanupScheduler = cleanupScheduler;
+            this.cleanupIntervalMs = cleanupIntervalMs;
+            return this;
+        }
+
+        /**
+         * Adds an off-heap L2 tier with the given byte capacity below the on-heap cache.
+         * The on-heap maximum size then controls the L1 size only.
+         */
+        public Builder withOffHeapTier(long offHeapCapacityBytes) {
+            this.offHeapCapacityBytes = offHeapCapacityBytes;
+            return this;
+        }
+
+        /**
+         * Write-behind mode: updates are acknowledged once cached and written in batches of up to
+         * maxBatchSize, at the latest every flushIntervalMs. More than maxPendingWrites distinct dirty
+         * customers make the updating thread flush a batch itself.
+         */
+        public Builder withWriteBehind(int maxBatchSize, long flushIntervalMs, int maxPendingWrites,
+                                       ScheduledExecutorService flushScheduler) {
+            this.maxBatchSize = maxBatchSize;
+            this.flushIntervalMs = flushIntervalMs;
+            this.maxPendingWrites = maxPendingWrites;
+            this.flushScheduler = flushScheduler;
+            return this;
+        }
+
+        public Builder withFlushOnClose(boolean flushOnClose) {
+            this.flushOnClose = flushOnClose;
+            return this;
+        }
+
+        public CachedCustomerServiceProxy build() {
+            if (realService == null) {
+                throw new IllegalStateException("Real service is required");
+            }
+            return new CachedCustomerServiceProxy(this);
         }
     }
 
@@ -112,24 +619,74 @@ public class CachedCustomerServiceProxy implements CustomerService {
         private final long hits;
         private final long misses;
         private final int size;
+        private final long evictions;
+        private final int[] segmentSizes;
+        private final long coalescedLoads;
+        private final long refreshes;
+        private final long expirations;
+        private final long offHeapHits;
+        private final int offHeapSize;
+        private final long offHeapBytesUsed;
+        private final double offHeapFragmentation;
+        private final int pendingWrites;
+        private final long coalescedWrites;
 
         public CacheStats(long hits, long misses, int size) {
+            this(hits, misses, size, 0, new int[0], 0, 0, 0, 0, 0, 0, 0.0, 0, 0);
+        }
+
+        public CacheStats(long hits, long misses, int size, long evictions, int[] segmentSizes,
+                          long coalescedLoads, long refreshes, long expirations,
+                          long offHeapHits, int offHeapSize, long offHeapBytesUsed, double offHeapFragmentation,
+                          int pendingWrites, long coalescedWrites) {
             this.hits = hits;
             this.misses = misses;
             this.size = size;
+            this.evictions = evictions;
+            this.segmentSizes = segmentSizes.clone();
+            this.coalescedLoads = coalescedLoads;
+            this.refreshes = refreshes;
+            this.expirations = expirations;
+            this.offHeapHits = offHeapHits;
+            this.offHeapSize = offHeapSize;
+            this.offHeapBytesUsed = offHeapBytesUsed;
+            this.offHeapFragmentation = offHeapFragmentation;
+            this.pendingWrites = pendingWrites;
+            this.coalescedWrites = coalescedWrites;
         }
 
         public long getHits() { return hits; }
         public long getMisses() { return misses; }
         public int getSize() { return size; }
+        public long getEvictions() { return evictions; }
+        public int[] getSegmentSizes() { return segmentSizes.clone(); }
+        /** Misses that waited for another caller's load instead of going to the database. */
+        public long getCoalescedLoads() { return coalescedLoads; }
+        public long getRefreshes() { return refreshes; }
+        /** Entries removed proactively by the timer wheel once their deadline passed. */
+        public long getExpirations() { return expirations; }
+        /** Hits served by promoting an entry from the off-heap tier (included in hits). */
+        public long getOffHeapHits() { return offHeapHits; }
+        public int getOffHeapSize() { return offHeapSize; }
+        public long getOffHeapBytesUsed() { return offHeapBytesUsed; }
+        /** Share of used off-heap bytes held by dead records, 0.0 - 1.0. */
+        public double getOffHeapFragmentation() { return offHeapFragmentation; }
+        /** Write-behind updates not yet written to the database. */
+        public int getPendingWrites() { return pendingWrites; }
+        /** Write-behind updates merged into an already pending update of the same customer. */
+        public long getCoalescedWrites() { return coalescedWrites; }
         public double getHitRatio() { 
             return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
         }
 
         @Override
         public String toString() {
-            return String.format("CacheStats{hits=%d, misses=%d, size=%d, hitRatio=%.2f%%}", 
-                hits, misses, size, getHitRatio() * 100);
+            return String.format("CacheStats{hits=%d, misses=%d, size=%d, evictions=%d, coalescedLoads=%d, "
+                + "refreshes=%d, expirations=%d, offHeap[hits=%d, size=%d, bytes=%d, fragmentation=%.2f%%], "
+                + "writeBehind[pending=%d, coalesced=%d], hitRatio=%.2f%%, segments=%s}",
+                hits, misses, size, evictions, coalescedLoads, refreshes, expirations,
+                offHeapHits, offHeapSize, offHeapBytesUsed, offHeapFragmentation * 100,
+                pendingWrites, coalescedWrites, getHitRatio() * 100, Arrays.toString(segmentSizes));
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.telekom.training.day2.customercaching.fixed;
 
 import com.telekom.training.day2.customercaching.initial.Customer;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Proxy Pattern: Subject
@@ -9,5 +11,17 @@ import com.telekom.training.day2.customercaching.initial.Customer;
 public interface CustomerService {
     Customer getCustomer(String customerId);
     Customer getCustomerWithTariffHistory(String customerId);
+
+    /**
+     * Batch lookup in a single round trip. The result is keyed by customer ID;
+     * unknown IDs are omitted instead of failing the whole batch.
+     */
+    Map<String, Customer> getCustomers(Collection<String> customerIds);
+
     boolean updateCustomer(Customer customer);
+
+    /**
+     * Batch update in a single round trip.
+     */
+    boolean updateCustomers(Collection<Customer> customers);
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.telekom.training.day2.customercaching.fixed;
 import com.telekom.training.day2.customercaching.initial.Customer;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Proxy Pattern: RealSubject
@@ -13,18 +16,24 @@ import java.util.Map;
 public class DatabaseCustomerService implements CustomerService {
     
     private final Map<String, Customer> database;
-    private long dbCallCounter = 0;
+    private final AtomicLong dbCallCounter = new AtomicLong();
+    private final long latencyMs;
 
     public DatabaseCustomerService() {
+        this(100);
+    }
+
+    public DatabaseCustomerService(long latencyMs) {
         this.database = initializeDatabase();
+        this.latencyMs = latencyMs;
     }
 
     @Override
     public Customer getCustomer(String customerId) {
         simulateSlowDatabaseAccess();
-        dbCallCounter++;
+        long callNumber = dbCallCounter.incrementAndGet();
         
-        System.out.println("🗄️  REAL DB CALL #" + dbCallCounter + " for customer: " + customerId);
+        System.out.println("🗄️  REAL DB CALL #" + callNumber + " for customer: " + customerId);
         
         Customer customer = database.get(customerId);
         if (customer == null) {
@@ -37,38 +46,77 @@ public class DatabaseCustomerService implements CustomerService {
     public Customer getCustomerWithTariffHistory(String customerId) {
         simulateSlowDatabaseAccess();
         simulateSlowDatabaseAccess(); // Complex query is slower
-        dbCallCounter++;
+        long callNumber = dbCallCounter.incrementAndGet();
         
-        System.out.println("🗄️  REAL DB CALL #" + dbCallCounter + " with tariff history for: " + customerId);
+        System.out.println("🗄️  REAL DB CALL #" + callNumber + " with tariff history for: " + customerId);
         
         return getCustomer(customerId);
     }
 
+    @Override
+    public Map<String, Customer> getCustomers(Collection<String> customerIds) {
+        simulateSlowDatabaseAccess(); // One round trip, e.g. WHERE id IN (...)
+        long callNumber = dbCallCounter.incrementAndGet();
+        
+        System.out.println("🗄️  REAL DB CALL #" + callNumber + " for batch of " + customerIds.size() + " customers");
+        
+        Map<String, Customer> result = new LinkedHashMap<>();
+        for (String customerId : customerIds) {
+            Customer customer = database.get(customerId);
+            if (customer != null) {
+                result.put(customerId, customer);
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean updateCustomer(Customer customer) {
         simulateSlowDatabaseAccess();
-        dbCallCounter++;
+        long callNumber = dbCallCounter.incrementAndGet();
         
-        System.out.println("🗄️  REAL DB UPDATE #" + dbCallCounter + " for customer: " + customer.getCustomerId());
+        System.out.println("🗄️  REAL DB UPDATE #" + callNumber + " for customer: " + customer.getCustomerId());
         
         database.put(customer.getCustomerId(), customer);
         return true;
     }
 
+    @Override
+    public boolean updateCustomers(Collection<Customer> customers) {
+        simulateSlowDatabaseAccess(); // One round trip, e.g. a JDBC batch
+        long callNumber = dbCallCounter.incrementAndGet();
+        
+        System.out.println("🗄️  REAL DB UPDATE #" + callNumber + " for batch of " + customers.size() + " customers");
+        
+        for (Customer customer : customers) {
+            database.put(customer.getCustomerId(), customer);
+        }
+        return true;
+    }
+
+    /**
+     * Bulk import without simulated latency, used to set up large data sets for benchmarks.
+     */
+    public void preload(Collection<Customer> customers) {
+        for (Customer customer : customers) {
+            database.put(customer.getCustomerId(), customer);
+        }
+    }
+
     public long getDbCallCount() {
-        return dbCallCounter;
+        return dbCallCounter.get();
     }
 
     private void simulateSlowDatabaseAccess() {
         try {
-            Thread.sleep(100); // Simulate 100ms database latency
+            Thread.sleep(latencyMs); // Simulate database latency (100ms by default)
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
 
     private Map<String, Customer> initializeDatabase() {
-        Map<String, Customer> db = new HashMap<>();
+        Map<String, Customer> db = new ConcurrentHashMap<>();
         
         db.put("CUST001", new Customer("CUST001", "Max Mustermann", "max@example.com",
             LocalDate.of(2020, 1, 15), Arrays.asList("Basic", "Premium"), "A"));
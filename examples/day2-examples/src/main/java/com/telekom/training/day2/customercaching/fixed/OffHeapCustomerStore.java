@@ -0,0 +1,319 @@
+package com.telekom.training.day2.customercaching.fixed;
+
+import com.telekom.training.day2.customercaching.initial.Customer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap second cache tier (L2) below the on-heap proxy cache
+ * Customers are stored in a compact binary encoding inside direct ByteBuffer slabs, so millions of
+ * entries do not add to GC work. Slabs are written like a log: updates append a new record and leave
+ * the old one dead. When all slabs are full the oldest slab is evicted as a whole and reused.
+ */
+public class OffHeapCustomerStore {
+
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final ByteBuffer[] slabs;
+    private final int[] liveBytes;
+    private final int slabSize;
+    private final long capacityBytes;
+    // Location of each key's current record: slab index in the high, offset in the low 32 bits
+    private final Map<String, Long> index = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder evictedEntries = new LongAdder();
+    private int writeSlab;
+
+    public OffHeapCustomerStore(long capacityBytes) {
+        this(capacityBytes, (int) Math.min(capacityBytes, DEFAULT_SLAB_SIZE));
+    }
+
+    public OffHeapCustomerStore(long capacityBytes, int slabSize) {
+        if (slabSize <= RECORD_HEADER_BYTES || capacityBytes < slabSize) {
+            throw new IllegalArgumentException("Invalid capacity " + capacityBytes + " for slab size " + slabSize);
+        }
+        int slabCount = (int) (capacityBytes / slabSize);
+        this.slabs = new ByteBuffer[slabCount];
+        this.liveBytes = new int[slabCount];
+        this.slabSize = slabSize;
+        this.capacityBytes = (long) slabCount * slabSize;
+        this.slabs[0] = ByteBuffer.allocateDirect(slabSize);
+    }
+
+    /**
+     * Stores the customer; returns false if the encoded record does not fit into a slab.
+     * An older record of the key is removed either way, so it can never be served instead.
+     */
+    public boolean put(String key, Customer customer, long expiresAtNanos) {
+        byte[] record = encode(key, customer, expiresAtNanos);
+        int recordSize = RECORD_HEADER_BYTES + record.length;
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (recordSize > slabSize) {
+                return false;
+            }
+            if (slabs[writeSlab].remaining() < recordSize) {
+                advanceWriteSlab();
+            }
+            ByteBuffer slab = slabs[writeSlab];
+            int offset = slab.position();
+            slab.putInt(record.length);
+            slab.put(record);
+            liveBytes[writeSlab] += recordSize;
+            index.put(key, location(writeSlab, offset));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the stored record, or null if the key is not in this tier
+     */
+    public Entry get(String key) {
+        lock.readLock().lock();
+        try {
+            Long location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            ByteBuffer view = slabs[slabOf(location)].duplicate();
+            view.position(offsetOf(location) + RECORD_HEADER_BYTES);
+            return decode(view);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (int i = 0; i < slabs.length; i++) {
+                if (slabs[i] != null) {
+                    slabs[i].clear();
+                }
+                liveBytes[i] = 0;
+            }
+            writeSlab = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /** Bytes written into slabs and not yet reclaimed, including dead records. */
+    public long getBytesUsed() {
+        lock.readLock().lock();
+        try {
+            long used = 0;
+            for (ByteBuffer slab : slabs) {
+                if (slab != null) {
+                    used += slab.position();
+                }
+            }
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Share of used bytes occupied by dead (overwritten or removed) records. */
+    public double getFragmentation() {
+        lock.readLock().lock();
+        try {
+            long used = 0;
+            long live = 0;
+            for (int i = 0; i < slabs.length; i++) {
+                if (slabs[i] != null) {
+                    used += slabs[i].position();
+                    live += liveBytes[i];
+                }
+            }
+            return used == 0 ? 0.0 : (double) (used - live) / used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getEvictedEntries() {
+        return evictedEntries.sum();
+    }
+
+    private void removeLocked(String key) {
+        Long location = index.remove(key);
+        if (location != null) {
+            int slab = slabOf(location);
+            liveBytes[slab] -= RECORD_HEADER_BYTES + slabs[slab].getInt(offsetOf(location));
+        }
+    }
+
+    private void advanceWriteSlab() {
+        writeSlab = (writeSlab + 1) % slabs.length;
+        if (slabs[writeSlab] == null) {
+            slabs[writeSlab] = ByteBuffer.allocateDirect(slabSize);
+            return;
+        }
+        evictSlab(writeSlab);
+    }
+
+    // Drops every record of the slab that is still current, then rewinds it for reuse
+    private void evictSlab(int slabIndex) {
+        ByteBuffer view = slabs[slabIndex].duplicate();
+        view.flip();
+        while (view.hasRemaining()) {
+            int offset = view.position();
+            int length = view.getInt();
+            String key = readString(view);
+            Long location = index.get(key);
+            if (location != null && location == location(slabIndex, offset)) {
+                index.remove(key);
+                evictedEntries.increment();
+            }
+            view.position(offset + RECORD_HEADER_BYTES + length);
+        }
+        slabs[slabIndex].clear();
+        liveBytes[slabIndex] = 0;
+    }
+
+    private static long location(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private static int slabOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    // Record layout: key, expiresAtNanos, id, name, email, registration epoch day, tariff history, rating
+    private static byte[] encode(String key, Customer customer, long expiresAtNanos) {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(utf8(key));
+        strings.add(utf8(customer.getCustomerId()));
+        strings.add(utf8(customer.getName()));
+        strings.add(utf8(customer.getEmail()));
+        List<String> history = customer.getTariffHistory();
+        if (history != null) {
+            for (String tariff : history) {
+                strings.add(utf8(tariff));
+            }
+        }
+        strings.add(utf8(customer.getCreditRating()));
+
+        int size = Long.BYTES + Long.BYTES + Integer.BYTES;
+        for (byte[] string : strings) {
+            size += Integer.BYTES + (string == null ? 0 : string.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        int i = 0;
+        writeString(buffer, strings.get(i++));
+        buffer.putLong(expiresAtNanos);
+        writeString(buffer, strings.get(i++));
+        writeString(buffer, strings.get(i++));
+        writeString(buffer, strings.get(i++));
+        LocalDate registrationDate = customer.getRegistrationDate();
+        buffer.putLong(registrationDate == null ? NO_DATE : registrationDate.toEpochDay());
+        buffer.putInt(history == null ? -1 : history.size());
+        while (i < strings.size()) {
+            writeString(buffer, strings.get(i++));
+        }
+        return buffer.array();
+    }
+
+    private static Entry decode(ByteBuffer buffer) {
+        readString(buffer); // key
+        long expiresAtNanos = buffer.getLong();
+        String customerId = readString(buffer);
+        String name = readString(buffer);
+        String email = readString(buffer);
+        long epochDay = buffer.getLong();
+        int historySize = buffer.getInt();
+        List<String> history = null;
+        if (historySize >= 0) {
+            history = new ArrayList<>(historySize);
+            for (int i = 0; i < historySize; i++) {
+                history.add(readString(buffer));
+            }
+        }
+        String creditRating = readString(buffer);
+        LocalDate registrationDate = epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+        Customer customer = new Customer(customerId, name, email, registrationDate, history, creditRating);
+        return new Entry(customer, expiresAtNanos);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A customer read back from the off-heap tier together with its original expiry deadline.
+     */
+    public static class Entry {
+        private final Customer customer;
+        private final long expiresAtNanos;
+
+        public Entry(Customer customer, long expiresAtNanos) {
+            this.customer = customer;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public Customer getCustomer() { return customer; }
+        public long getExpiresAtNanos() { return expiresAtNanos; }
+    }
+}
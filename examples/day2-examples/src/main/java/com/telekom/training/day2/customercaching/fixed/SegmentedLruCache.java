@@ -0,0 +1,242 @@
+package com.telekom.training.day2.customercaching.fixed;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache engine used by the Proxy
+ * Size-bounded, thread-safe key/value store split into striped segments. Each segment has its own lock
+ * and evicts with segmented LRU: new keys enter a probation area and are promoted to a protected area
+ * on their second access, so one-hit wonders (e.g. a billing scan) cannot flush the hot customers.
+ */
+public class SegmentedLruCache<K, V> {
+
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final long maximumSize;
+    private final LongAdder evictions = new LongAdder();
+    private final BiConsumer<K, V> evictionListener;
+
+    public SegmentedLruCache(long maximumSize, int concurrencyLevel) {
+        this(maximumSize, concurrencyLevel, (key, value) -> { });
+    }
+
+    /**
+     * @param evictionListener called for every size-based eviction, outside of the segment lock
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentedLruCache(long maximumSize, int concurrencyLevel, BiConsumer<K, V> evictionListener) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive: " + concurrencyLevel);
+        }
+
+        // Power of two segment count so that the segment can be selected with a mask
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && segmentCount < maximumSize) {
+            segmentCount <<= 1;
+        }
+
+        this.maximumSize = maximumSize;
+        this.evictionListener = evictionListener;
+        this.segmentMask = segmentCount - 1;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+
+        long perSegment = maximumSize / segmentCount;
+        long remainder = maximumSize % segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment + (i < remainder ? 1 : 0), evictions);
+        }
+    }
+
+    public V get(K key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * @return the value previously mapped to the key, or null
+     */
+    public V put(K key, V value) {
+        List<Map.Entry<K, V>> evicted = new ArrayList<>(1);
+        V previous = segmentFor(key).put(key, value, evicted);
+        for (Map.Entry<K, V> entry : evicted) {
+            evictionListener.accept(entry.getKey(), entry.getValue());
+        }
+        return previous;
+    }
+
+    public V remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    /**
+     * Removes the key only if it is still mapped to the given value (compared by identity).
+     */
+    public boolean remove(K key, V value) {
+        return segmentFor(key).remove(key, value);
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int[] segmentSizes() {
+        int[] sizes = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            sizes[i] = segments[i].size();
+        }
+        return sizes;
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        // Spread the hash so that keys sharing a prefix ("basic_", "history_") still use all segments
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return segments[h & segmentMask];
+    }
+
+    // One stripe of the cache: a probation and a protected LRU list guarded by a single lock
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, V> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+        private final long capacity;
+        private final long protectedCapacity;
+        private final LongAdder evictions;
+
+        Segment(long capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.protectedCapacity = (long) (capacity * PROTECTED_RATIO);
+            this.evictions = evictions;
+        }
+
+        V get(K key) {
+            lock.lock();
+            try {
+                V value = protectedArea.get(key);
+                if (value != null) {
+                    return value;
+                }
+                value = probation.remove(key);
+                if (value != null) {
+                    promote(key, value);
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        V put(K key, V value, List<Map.Entry<K, V>> evicted) {
+            lock.lock();
+            try {
+                if (protectedArea.containsKey(key)) {
+                    return protectedArea.put(key, value);
+                }
+                V previous = probation.put(key, value);
+                evictIfNecessary(evicted);
+                return previous;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        V remove(K key) {
+            lock.lock();
+            try {
+                V value = probation.remove(key);
+                return value != null ? value : protectedArea.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean remove(K key, V value) {
+            lock.lock();
+            try {
+                if (probation.get(key) == value) {
+                    probation.remove(key);
+                    return true;
+                }
+                if (protectedArea.get(key) == value) {
+                    protectedArea.remove(key);
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                probation.clear();
+                protectedArea.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return probation.size() + protectedArea.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void promote(K key, V value) {
+            protectedArea.put(key, value);
+            if (protectedArea.size() > protectedCapacity) {
+                // Demote the least recently used protected entry back to probation
+                Iterator<Map.Entry<K, V>> it = protectedArea.entrySet().iterator();
+                Map.Entry<K, V> eldest = it.next();
+                it.remove();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+
+        private void evictIfNecessary(List<Map.Entry<K, V>> evicted) {
+            while (probation.size() + protectedArea.size() > capacity) {
+                LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedArea : probation;
+                Iterator<Map.Entry<K, V>> it = victims.entrySet().iterator();
+                Map.Entry<K, V> eldest = it.next();
+                evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
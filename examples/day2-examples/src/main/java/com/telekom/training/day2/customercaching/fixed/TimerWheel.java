@@ -0,0 +1,203 @@
+package com.telekom.training.day2.customercaching.fixed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timer wheel for proactive cache expiry
+ * Deadlines are System.nanoTime() values. Each level has 64 buckets; a node is placed on the finest
+ * level that can hold its remaining time and cascades down as the wheel turns. Scheduling and
+ * descheduling are O(1), advancing is O(1) amortized per expired node.
+ */
+public class TimerWheel<K> {
+
+    private static final int BUCKETS = 64;
+    private static final int BUCKET_MASK = BUCKETS - 1;
+    // Bucket widths: ~1ms, ~67ms, ~4.3s, ~4.6min, ~4.9h
+    private static final int[] SHIFTS = {20, 26, 32, 38, 44};
+
+    private final Node<K>[][] wheel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long originNanos;
+    private long currentTime;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long nowNanos) {
+        this.originNanos = nowNanos;
+        this.wheel = (Node<K>[][]) new Node<?>[SHIFTS.length][BUCKETS];
+        for (Node<K>[] level : wheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                Node<K> sentinel = new Sentinel<>();
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    public void schedule(Node<K> node) {
+        lock.lock();
+        try {
+            if (node.prev != null) {
+                unlink(node);
+            }
+            link(node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deschedule(Node<K> node) {
+        lock.lock();
+        try {
+            if (node.prev != null) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns the wheel to the given time and returns the nodes whose deadline has passed.
+     * Returns null without waiting if another thread is advancing the wheel right now.
+     */
+    public List<Node<K>> tryAdvance(long nowNanos) {
+        if (!lock.tryLock()) {
+            return null;
+        }
+        try {
+            return advance(nowNanos - originNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            for (Node<K>[] level : wheel) {
+                for (Node<K> sentinel : level) {
+                    Node<K> node = sentinel.next;
+                    while (node != sentinel) {
+                        Node<K> next = node.next;
+                        node.prev = null;
+                        node.next = null;
+                        node = next;
+                    }
+                    sentinel.prev = sentinel;
+                    sentinel.next = sentinel;
+                }
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Node<K>> advance(long now) {
+        long previous = currentTime;
+        currentTime = now;
+        List<Node<K>> expired = new ArrayList<>();
+
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long currentTicks = now >>> SHIFTS[level];
+            if (currentTicks == previousTicks) {
+                break; // coarser levels have not turned either
+            }
+            // Include the tick just entered so its nodes cascade to finer levels right away
+            long ticks = Math.min(currentTicks - previousTicks + 1, BUCKETS);
+            for (long tick = previousTicks; tick < previousTicks + ticks; tick++) {
+                expireBucket(wheel[level][(int) (tick & BUCKET_MASK)], now, expired);
+            }
+        }
+        return expired;
+    }
+
+    private void expireBucket(Node<K> sentinel, long now, List<Node<K>> expired) {
+        // Detach the whole bucket first, so nodes cascading into it are not visited twice
+        Node<K> node = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+
+        while (node != sentinel) {
+            Node<K> next = node.next;
+            node.prev = null;
+            node.next = null;
+            size--;
+            if (node.deadlineNanos - originNanos - now <= 0) {
+                expired.add(node);
+            } else {
+                link(node);
+            }
+            node = next;
+        }
+    }
+
+    private void link(Node<K> node) {
+        long deadline = Math.max(node.deadlineNanos - originNanos, currentTime);
+        long remaining = deadline - currentTime;
+
+        int level = 0;
+        while (level < SHIFTS.length - 1 && remaining >= ((long) BUCKETS << SHIFTS[level])) {
+            level++;
+        }
+        Node<K> sentinel = wheel[level][(int) ((deadline >>> SHIFTS[level]) & BUCKET_MASK)];
+
+        node.next = sentinel;
+        node.prev = sentinel.prev;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+        size++;
+    }
+
+    private void unlink(Node<K> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        size--;
+    }
+
+    /**
+     * Intrusive list node; cache entries extend it so that scheduling allocates nothing extra.
+     */
+    public abstract static class Node<K> {
+        private final K key;
+        private final long deadlineNanos;
+        private Node<K> prev;
+        private Node<K> next;
+
+        protected Node(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+    }
+
+    // Head of a bucket's circular list
+    private static final class Sentinel<K> extends Node<K> {
+        Sentinel() {
+            super(null, 0);
+        }
+    }
+}
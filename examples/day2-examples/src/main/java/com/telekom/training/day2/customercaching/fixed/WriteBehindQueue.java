@@ -0,0 +1,230 @@
+package com.telekom.training.day2.customercaching.fixed;
+
+import com.telekom.training.day2.customercaching.initial.Customer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer used by the caching Proxy
+ * Collects customer updates in a dirty set keyed by customer ID, so repeated updates of the same
+ * customer are coalesced into one write. The dirty set is flushed to the backend in batches when it
+ * reaches the batch size or when the flush interval elapses. The set is bounded: when it is full the
+ * updating thread has to flush a batch itself, which slows producers down to backend speed.
+ */
+public class WriteBehindQueue {
+
+    private final CustomerService backend;
+    private final int maxBatchSize;
+    private final int maxPendingWrites;
+    private final ScheduledExecutorService flushScheduler;
+    private final ScheduledFuture<?> periodicFlush;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Customer> dirty = new LinkedHashMap<>();
+    // Batch currently being written, still visible to readers until the backend has it
+    private volatile Map<String, Customer> flushing = Collections.emptyMap();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final LongAdder flushedWrites = new LongAdder();
+    private final LongAdder flushBatches = new LongAdder();
+    private final LongAdder backpressureFlushes = new LongAdder();
+
+    public WriteBehindQueue(CustomerService backend, int maxBatchSize, int maxPendingWrites,
+                            long flushIntervalMs, ScheduledExecutorService flushScheduler) {
+        if (maxBatchSize <= 0 || maxPendingWrites < maxBatchSize) {
+            throw new IllegalArgumentException("Need 0 < maxBatchSize <= maxPendingWrites, got "
+                + maxBatchSize + " / " + maxPendingWrites);
+        }
+        this.backend = backend;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPendingWrites = maxPendingWrites;
+        this.flushScheduler = flushScheduler;
+        this.periodicFlush = flushScheduler.scheduleWithFixedDelay(this::flushAllQuietly,
+            flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void enqueue(Customer customer) {
+        String customerId = customer.getCustomerId();
+        while (true) {
+            lock.lock();
+            try {
+                if (dirty.containsKey(customerId)) {
+                    dirty.put(customerId, customer);
+                    coalescedWrites.increment();
+                    return;
+                }
+                if (dirty.size() < maxPendingWrites) {
+                    dirty.put(customerId, customer);
+                    if (dirty.size() >= maxBatchSize) {
+                        requestFlush();
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Backpressure: the dirty set is full, so the caller pays for a flush before retrying
+            backpressureFlushes.increment();
+            flushBatch();
+        }
+    }
+
+    /**
+     * @return the not yet persisted state of the customer, or null if nothing is pending
+     */
+    public Customer getPending(String customerId) {
+        lock.lock();
+        try {
+            Customer pending = dirty.get(customerId);
+            if (pending != null) {
+                return pending;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return flushing.get(customerId);
+    }
+
+    /**
+     * Writes one batch of at most maxBatchSize customers to the backend.
+     * Flushes are serialized, so updates of the same customer reach the backend in order.
+     */
+    public void flushBatch() {
+        flushLock.lock();
+        try {
+            Map<String, Customer> batch = new LinkedHashMap<>();
+            lock.lock();
+            try {
+                Iterator<Map.Entry<String, Customer>> it = dirty.entrySet().iterator();
+                while (it.hasNext() && batch.size() < maxBatchSize) {
+                    Map.Entry<String, Customer> entry = it.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    it.remove();
+                }
+                // Publish in the same critical section as the removal, so getPending always finds the customer
+                if (!batch.isEmpty()) {
+                    flushing = batch;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                if (!backend.updateCustomers(new ArrayList<>(batch.values()))) {
+                    throw new IllegalStateException("Backend did not accept batch of " + batch.size() + " customers");
+                }
+                flushedWrites.add(batch.size());
+                flushBatches.increment();
+            } catch (RuntimeException e) {
+                requeue(batch);
+                throw e;
+            } finally {
+                flushing = Collections.emptyMap();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void flushAll() {
+        while (getPendingCount() > 0) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Stops the periodic flush. With flushPending the remaining dirty customers are written first,
+     * otherwise they are dropped and their number is returned.
+     */
+    public int shutdown(boolean flushPending) {
+        periodicFlush.cancel(false);
+        if (flushPending) {
+            flushAll();
+            return 0;
+        }
+        lock.lock();
+        try {
+            int dropped = dirty.size();
+            dirty.clear();
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return dirty.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Updates absorbed by an already pending update of the same customer. */
+    public long getCoalescedWrites() { return coalescedWrites.sum(); }
+    public long getFlushedWrites() { return flushedWrites.sum(); }
+    public long getFlushBatches() { return flushBatches.sum(); }
+    /** Flushes run by updating threads because the dirty set was full. */
+    public long getBackpressureFlushes() { return backpressureFlushes.sum(); }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flushScheduler.execute(() -> {
+                    flushRequested.set(false);
+                    flushFullBatchesQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // periodic flush or backpressure will pick it up
+            }
+        }
+    }
+
+    private void flushFullBatchesQuietly() {
+        try {
+            while (getPendingCount() >= maxBatchSize) {
+                flushBatch();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("⚠️  WRITE-BEHIND FLUSH FAILED, will retry: " + e.getMessage());
+        }
+    }
+
+    private void flushAllQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            System.out.println("⚠️  WRITE-BEHIND FLUSH FAILED, will retry: " + e.getMessage());
+        }
+    }
+
+    // Put a failed batch back, without overwriting updates that arrived in the meantime
+    private void requeue(Map<String, Customer> batch) {
+        lock.lock();
+        try {
+            LinkedHashMap<String, Customer> newer = new LinkedHashMap<>(dirty);
+            dirty.clear();
+            dirty.putAll(batch);
+            dirty.putAll(newer);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
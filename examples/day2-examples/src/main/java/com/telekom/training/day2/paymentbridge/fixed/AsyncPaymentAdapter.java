@@ -0,0 +1,124 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Adapter: runs a blocking PaymentImplementation (PayPal, Stripe, ...) on a bounded I/O executor
+ * Callers get a future immediately; only the executor's threads wait for the provider.
+ * A full executor queue completes the future with a failed PaymentResult instead of blocking;
+ * isSaturated() tells such a rejection apart from a charge the provider declined.
+ */
+public class AsyncPaymentAdapter implements AsyncPaymentImplementation {
+
+    public static final int DEFAULT_IO_THREADS = 32;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1_000;
+
+    private final PaymentImplementation implementation;
+    private final Executor ioExecutor;
+
+    public AsyncPaymentAdapter(PaymentImplementation implementation, Executor ioExecutor) {
+        this.implementation = implementation;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Adapter on the shared default I/O executor.
+     */
+    public AsyncPaymentAdapter(PaymentImplementation implementation) {
+        this(implementation, DefaultExecutorHolder.EXECUTOR);
+    }
+
+    /**
+     * Fixed-size pool of daemon threads with a bounded queue; excess work is rejected, not queued forever.
+     */
+    public static ExecutorService boundedIoExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "payment-io-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * True if the call was rejected by a saturated executor and never reached the provider,
+     * so it can be submitted again without risking a duplicate charge.
+     */
+    public static boolean isSaturated(PaymentResult result) {
+        return result instanceof SaturatedResult;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(String token, BigDecimal amount, String currency) {
+        return submit(() -> implementation.processPayment(token, amount, currency));
+    }
+
+    /**
+     * True if the wrapped implementation deduplicates charges by idempotency key.
+     */
+    public boolean supportsIdempotencyKeys() {
+        return implementation instanceof IdempotentPaymentImplementation;
+    }
+
+    /**
+     * Charge that the provider books at most once per idempotency key.
+     *
+     * @throws UnsupportedOperationException if the implementation has no idempotency keys
+     */
+    public CompletableFuture<PaymentResult> processPaymentAsync(String idempotencyKey, String token,
+                                                                BigDecimal amount, String currency) {
+        if (!supportsIdempotencyKeys()) {
+            throw new UnsupportedOperationException(implementation.getProviderName() + " has no idempotency keys");
+        }
+        IdempotentPaymentImplementation idempotent = (IdempotentPaymentImplementation) implementation;
+        return submit(() -> idempotent.processPayment(idempotencyKey, token, amount, currency));
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> refundPaymentAsync(String transactionId, BigDecimal amount) {
+        return submit(() -> implementation.refundPayment(transactionId, amount));
+    }
+
+    @Override
+    public String getProviderName() {
+        return implementation.getProviderName();
+    }
+
+    private CompletableFuture<PaymentResult> submit(Supplier<PaymentResult> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, ioExecutor)
+                .exceptionally(e -> failure("error: " + e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            String provider = implementation.getProviderName();
+            return CompletableFuture.completedFuture(new SaturatedResult(provider));
+        }
+    }
+
+    private PaymentResult failure(String message) {
+        String provider = implementation.getProviderName();
+        return new PaymentResult(null, false, provider + " " + message, provider);
+    }
+
+    private static final class SaturatedResult extends PaymentResult {
+        SaturatedResult(String provider) {
+            super(null, false, provider + " rejected, payment executor saturated", provider);
+        }
+    }
+
+    // Created on first use only
+    private static final class DefaultExecutorHolder {
+        static final ExecutorService EXECUTOR = boundedIoExecutor(DEFAULT_IO_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+}
@@ -0,0 +1,15 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bridge Pattern: Asynchronous Implementation
+ * Non-blocking counterpart of PaymentImplementation. Futures always complete normally;
+ * provider errors are reported as unsuccessful PaymentResults, as in the blocking API.
+ */
+public interface AsyncPaymentImplementation {
+    CompletableFuture<PaymentResult> processPaymentAsync(String token, BigDecimal amount, String currency);
+    CompletableFuture<PaymentResult> refundPaymentAsync(String transactionId, BigDecimal amount);
+    String getProviderName();
+}
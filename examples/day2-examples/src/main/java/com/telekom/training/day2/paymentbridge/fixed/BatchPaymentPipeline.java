@@ -0,0 +1,342 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Batch client of the payment Bridge
+ * Groups the charges of a run per provider and feeds each group through that provider's
+ * PaymentProcessor on its own lane: at most maxConcurrency charges in flight and at most
+ * maxChargesPerSecond started. Lanes run in parallel, results are streamed to a listener as they
+ * complete, and the returned future yields throughput, latency and failure statistics.
+ * A charge rejected by a saturated I/O executor is not reported as failed: the lane backs off and
+ * resubmits it, so a lane wider than its processor's executor slows down instead of losing charges.
+ */
+public class BatchPaymentPipeline {
+
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Map<String, Lane> lanes;
+    // Runs the lane dispatchers; idle threads are reused by later runs
+    private final ExecutorService dispatchers;
+
+    private BatchPaymentPipeline(Builder builder) {
+        this.lanes = new LinkedHashMap<>(builder.lanes);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatchers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "payment-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts a batch run and returns immediately.
+     * Charges for providers without a lane fail right away with an unsuccessful result.
+     *
+     * @param resultListener called once per charge as soon as its result is known, from pipeline threads
+     */
+    public CompletableFuture<BatchReport> submit(Collection<Charge> charges, Consumer<ChargeResult> resultListener) {
+        Map<String, List<Charge>> byProvider = new LinkedHashMap<>();
+        List<Charge> unroutable = new ArrayList<>();
+        for (Charge charge : charges) {
+            if (lanes.containsKey(charge.getProviderName())) {
+                byProvider.computeIfAbsent(charge.getProviderName(), name -> new ArrayList<>()).add(charge);
+            } else {
+                unroutable.add(charge);
+            }
+        }
+
+        System.out.println("📦 BATCH RUN started: " + charges.size() + " charges across "
+            + byProvider.size() + " providers");
+        Run run = new Run(charges.size(), byProvider.keySet(), resultListener);
+
+        for (Charge charge : unroutable) {
+            PaymentResult failure = new PaymentResult(null, false,
+                "No payment provider configured: " + charge.getProviderName(), charge.getProviderName());
+            run.complete(null, new ChargeResult(charge, failure, 0));
+        }
+        for (Map.Entry<String, List<Charge>> group : byProvider.entrySet()) {
+            Lane lane = lanes.get(group.getKey());
+            ProviderStats stats = run.providerStats.get(group.getKey());
+            dispatchers.execute(() -> dispatch(lane, group.getValue(), stats, run));
+        }
+        return run.report;
+    }
+
+    // Lane dispatcher: paces and bounds the charges of one provider, completion happens asynchronously
+    private void dispatch(Lane lane, List<Charge> charges, ProviderStats stats, Run run) {
+        Semaphore inFlight = new Semaphore(lane.maxConcurrency);
+        long intervalNanos = lane.maxChargesPerSecond > 0 ? (long) (1_000_000_000L / lane.maxChargesPerSecond) : 0;
+        long nextStart = System.nanoTime();
+
+        for (int i = 0; i < charges.size(); i++) {
+            Charge charge = charges.get(i);
+            long start;
+            CompletableFuture<PaymentResult> payment;
+            try {
+                long wait = nextStart - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                inFlight.acquire();
+                start = System.nanoTime();
+                payment = submitCharge(lane, charge);
+                // Rejected before reaching the provider: hold the lane until the executor has room again
+                long backoff = MIN_BACKOFF_NANOS;
+                while (payment.isDone() && !payment.isCompletedExceptionally()
+                        && AsyncPaymentAdapter.isSaturated(payment.join())) {
+                    stats.retried.increment();
+                    TimeUnit.NANOSECONDS.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                    payment = submitCharge(lane, charge);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Charge cancelled : charges.subList(i, charges.size())) {
+                    PaymentResult failure = new PaymentResult(null, false, "Batch run interrupted",
+                        lane.processor.getProviderName());
+                    run.complete(stats, new ChargeResult(cancelled, failure, 0));
+                }
+                return;
+            }
+            nextStart = Math.max(nextStart, System.nanoTime()) + intervalNanos;
+
+            payment.whenComplete((result, error) -> {
+                inFlight.release();
+                PaymentResult outcome = error == null ? result
+                    : new PaymentResult(null, false, "Processor error: " + error.getMessage(),
+                        lane.processor.getProviderName());
+                run.complete(stats, new ChargeResult(charge, outcome, System.nanoTime() - start));
+            });
+        }
+    }
+
+    private static CompletableFuture<PaymentResult> submitCharge(Lane lane, Charge charge) {
+        try {
+            return lane.processor.processPaymentAsync(charge.getToken(), charge.getAmount(), charge.getCurrency());
+        } catch (RuntimeException e) {
+            CompletableFuture<PaymentResult> payment = new CompletableFuture<>();
+            payment.completeExceptionally(e);
+            return payment;
+        }
+    }
+
+    private static final class Lane {
+        private final PaymentProcessor processor;
+        private final int maxConcurrency;
+        private final double maxChargesPerSecond;
+
+        Lane(PaymentProcessor processor, int maxConcurrency, double maxChargesPerSecond) {
+            this.processor = processor;
+            this.maxConcurrency = maxConcurrency;
+            this.maxChargesPerSecond = maxChargesPerSecond;
+        }
+    }
+
+    // State of one submit() call
+    private static final class Run {
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger remaining;
+        private final Map<String, ProviderStats> providerStats = new LinkedHashMap<>();
+        private final LongAdder unroutable = new LongAdder();
+        private final Consumer<ChargeResult> listener;
+        private final CompletableFuture<BatchReport> report = new CompletableFuture<>();
+
+        Run(int charges, Collection<String> providers, Consumer<ChargeResult> listener) {
+            this.remaining = new AtomicInteger(charges);
+            this.listener = listener;
+            for (String provider : providers) {
+                providerStats.put(provider, new ProviderStats(provider, startNanos));
+            }
+            if (charges == 0) {
+                finish();
+            }
+        }
+
+        void complete(ProviderStats stats, ChargeResult result) {
+            if (stats != null) {
+                stats.record(result);
+            } else {
+                unroutable.increment();
+            }
+            try {
+                listener.accept(result);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️  BATCH RUN result listener failed: " + e.getMessage());
+            }
+            if (remaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            BatchReport batchReport = new BatchReport(System.nanoTime() - startNanos, unroutable.sum(),
+                new ArrayList<>(providerStats.values()));
+            System.out.println("✅ BATCH RUN finished: " + batchReport);
+            report.complete(batchReport);
+        }
+    }
+
+    /**
+     * Result of one charge, with the time from dispatch to result.
+     */
+    public static class ChargeResult {
+        private final Charge charge;
+        private final PaymentResult result;
+        private final long latencyNanos;
+
+        public ChargeResult(Charge charge, PaymentResult result, long latencyNanos) {
+            this.charge = charge;
+            this.result = result;
+            this.latencyNanos = latencyNanos;
+        }
+
+        public Charge getCharge() { return charge; }
+        public PaymentResult getResult() { return result; }
+        public long getLatencyNanos() { return latencyNanos; }
+    }
+
+    /**
+     * Per-provider statistics of a batch run.
+     */
+    public static class ProviderStats {
+        private final String providerName;
+        private final long runStartNanos;
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder retried = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile long lastCompletionNanos;
+
+        ProviderStats(String providerName, long runStartNanos) {
+            this.providerName = providerName;
+            this.runStartNanos = runStartNanos;
+            this.lastCompletionNanos = runStartNanos;
+        }
+
+        void record(ChargeResult result) {
+            if (result.getResult().isSuccess()) {
+                succeeded.increment();
+            } else {
+                failed.increment();
+            }
+            latency.record(result.getLatencyNanos());
+            lastCompletionNanos = System.nanoTime();
+        }
+
+        public String getProviderName() { return providerName; }
+        public long getSucceeded() { return succeeded.sum(); }
+        public long getFailed() { return failed.sum(); }
+        /** Submissions repeated because the processor's executor was saturated. */
+        public long getRetried() { return retried.sum(); }
+        public LatencyHistogram getLatency() { return latency; }
+        /** Completed charges per second, from run start to this provider's last result. */
+        public double getThroughputPerSecond() {
+            long elapsed = lastCompletionNanos - runStartNanos;
+            return elapsed <= 0 ? 0.0 : (getSucceeded() + getFailed()) * 1_000_000_000.0 / elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[ok=%d, failed=%d, %.1f/s, %s]",
+                providerName, getSucceeded(), getFailed(), getThroughputPerSecond(), latency);
+        }
+    }
+
+    /**
+     * Summary of a finished batch run.
+     */
+    public static class BatchReport {
+        private final long elapsedNanos;
+        private final long unroutable;
+        private final List<ProviderStats> providers;
+
+        public BatchReport(long elapsedNanos, long unroutable, List<ProviderStats> providers) {
+            this.elapsedNanos = elapsedNanos;
+            this.unroutable = unroutable;
+            this.providers = Collections.unmodifiableList(providers);
+        }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+        /** Charges for providers without a lane; counted as failures. */
+        public long getUnroutable() { return unroutable; }
+        public List<ProviderStats> getProviders() { return providers; }
+
+        public long getSucceeded() {
+            return providers.stream().mapToLong(ProviderStats::getSucceeded).sum();
+        }
+
+        public long getFailed() {
+            return unroutable + providers.stream().mapToLong(ProviderStats::getFailed).sum();
+        }
+
+        public double getThroughputPerSecond() {
+            return elapsedNanos <= 0 ? 0.0 : (getSucceeded() + getFailed()) * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public ProviderStats getProvider(String providerName) {
+            for (ProviderStats stats : providers) {
+                if (stats.getProviderName().equals(providerName)) {
+                    return stats;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("BatchReport{ok=%d, failed=%d, elapsed=%dms, %.1f/s, providers=%s}",
+                getSucceeded(), getFailed(), elapsedNanos / 1_000_000, getThroughputPerSecond(), providers);
+        }
+    }
+
+    /**
+     * Builder registering one lane per payment provider.
+     */
+    public static class Builder {
+        private final Map<String, Lane> lanes = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxConcurrency      charges of this provider in flight at the same time
+         * @param maxChargesPerSecond rate limit for starting charges, 0 for unlimited
+         */
+        public Builder withProvider(PaymentProcessor processor, int maxConcurrency, double maxChargesPerSecond) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            if (lanes.putIfAbsent(processor.getProviderName(),
+                    new Lane(processor, maxConcurrency, maxChargesPerSecond)) != null) {
+                throw new IllegalArgumentException("Provider already configured: " + processor.getProviderName());
+            }
+            return this;
+        }
+
+        public BatchPaymentPipeline build() {
+            if (lanes.isEmpty()) {
+                throw new IllegalStateException("At least one provider is required");
+            }
+            return new BatchPaymentPipeline(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.math.BigDecimal;
+
+/**
+ * One charge of a batch run, addressed to a payment provider by name
+ */
+public class Charge {
+    private final String providerName;
+    private final String token;
+    private final BigDecimal amount;
+    private final String currency;
+
+    public Charge(String providerName, String token, BigDecimal amount, String currency) {
+        this.providerName = providerName;
+        this.token = token;
+        this.amount = amount;
+        this.currency = currency;
+    }
+
+    public String getProviderName() { return providerName; }
+    public String getToken() { return token; }
+    public BigDecimal getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+
+    @Override
+    public String toString() {
+        return String.format("Charge{provider='%s', amount=%s %s}", providerName, amount, currency);
+    }
+}
@@ -0,0 +1,12 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.math.BigDecimal;
+
+/**
+ * Bridge Pattern: Implementation capability
+ * A provider that deduplicates charges by idempotency key: every call with the same key books at most
+ * one charge and returns that charge's result. Only such charges may be sent more than once, e.g. hedged.
+ */
+public interface IdempotentPaymentImplementation extends PaymentImplementation {
+    PaymentResult processPayment(String idempotencyKey, String token, BigDecimal amount, String currency);
+}
@@ -0,0 +1,64 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency histogram with power-of-two millisecond buckets
+ * Bucket i counts latencies in [2^(i-1), 2^i) ms, bucket 0 everything below 1 ms.
+ * Percentiles are reported as the upper bound of their bucket, i.e. at most 2x too high.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(long latencyNanos) {
+        long millis = Math.max(0, latencyNanos / 1_000_000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(latencyNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    /**
+     * @param percentile 0.0 - 100.0
+     * @return upper bound in ms of the bucket holding the percentile, 0 if nothing was recorded
+     */
+    public long getPercentileMillis(double percentile) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += buckets.get(i);
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fms, p50<=%dms, p95<=%dms, p99<=%dms",
+            getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99));
+    }
+}
@@ -1,58 +1,98 @@
 package com.telekom.training.day2.paymentbridge.fixed;
 
+import com.telekom.training.day2.paymentbridge.fixed.PaymentAuditLog.EventType;
+
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Bridge Pattern: Refined Abstraction
- * Payment processor with enhanced logging and auditing
+ * Payment processor with enhanced logging and auditing.
+ * Audit events go to a PaymentAuditLog, so formatting and file I/O stay off the payment thread.
+ * Without an explicit log the shared default log is used, which writes to the console.
+ * Async calls rejected by a saturated executor never reached the provider and are not audited.
  */
 public class LoggingPaymentProcessor extends PaymentProcessor {
 
+    private final PaymentAuditLog auditLog;
+
     public LoggingPaymentProcessor(PaymentImplementation implementation) {
+        this(implementation, PaymentAuditLog.defaultLog());
+    }
+
+    public LoggingPaymentProcessor(PaymentImplementation implementation, Executor ioExecutor) {
+        this(implementation, ioExecutor, PaymentAuditLog.defaultLog());
+    }
+
+    public LoggingPaymentProcessor(PaymentImplementation implementation, PaymentAuditLog auditLog) {
         super(implementation);
+        this.auditLog = auditLog;
+    }
+
+    public LoggingPaymentProcessor(PaymentImplementation implementation, Executor ioExecutor,
+                                   PaymentAuditLog auditLog) {
+        super(implementation, ioExecutor);
+        this.auditLog = auditLog;
     }
 
     @Override
     public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
-        String maskedToken = maskToken(token);
-        System.out.println("📝 AUDIT: Payment request at " + LocalDateTime.now());
-        System.out.println("    Provider: " + implementation.getProviderName());
-        System.out.println("    Amount: " + amount + " " + currency);
-        System.out.println("    Token: " + maskedToken);
-        
-        long startTime = System.currentTimeMillis();
+        String provider = implementation.getProviderName();
+        long requestId = auditLog.recordRequest(EventType.PAYMENT_REQUEST, provider, token, amount, currency);
+
+        long startTime = System.nanoTime();
         PaymentResult result = implementation.processPayment(token, amount, currency);
-        long duration = System.currentTimeMillis() - startTime;
-        
-        System.out.println("📝 AUDIT: Payment result in " + duration + "ms");
-        System.out.println("    Success: " + result.isSuccess());
-        System.out.println("    Transaction ID: " + result.getTransactionId());
-        
+        auditLog.recordResult(EventType.PAYMENT_RESULT, requestId, provider, result, System.nanoTime() - startTime);
         return result;
     }
 
     @Override
     public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
-        System.out.println("📝 AUDIT: Refund request at " + LocalDateTime.now());
-        System.out.println("    Provider: " + implementation.getProviderName());
-        System.out.println("    Transaction ID: " + transactionId);
-        System.out.println("    Amount: " + amount);
-        
-        long startTime = System.currentTimeMillis();
+        String provider = implementation.getProviderName();
+        long requestId = auditLog.recordRequest(EventType.REFUND_REQUEST, provider, transactionId, amount, null);
+
+        long startTime = System.nanoTime();
         PaymentResult result = implementation.refundPayment(transactionId, amount);
-        long duration = System.currentTimeMillis() - startTime;
-        
-        System.out.println("📝 AUDIT: Refund result in " + duration + "ms");
-        System.out.println("    Success: " + result.isSuccess());
-        
+        auditLog.recordResult(EventType.REFUND_RESULT, requestId, provider, result, System.nanoTime() - startTime);
         return result;
     }
 
-    private String maskToken(String token) {
-        if (token == null || token.length() < 8) {
-            return "***";
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(String token, BigDecimal amount, String currency) {
+        long startTime = System.nanoTime();
+        CompletableFuture<PaymentResult> payment = asyncImplementation.processPaymentAsync(token, amount, currency);
+        if (isSaturated(payment)) {
+            return payment;
+        }
+        String provider = asyncImplementation.getProviderName();
+        long requestId = auditLog.recordRequest(EventType.PAYMENT_REQUEST, provider, token, amount, currency);
+        return payment.thenApply(result -> {
+            auditLog.recordResult(EventType.PAYMENT_RESULT, requestId, provider, result,
+                System.nanoTime() - startTime);
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> refundPaymentAsync(String transactionId, BigDecimal amount) {
+        long startTime = System.nanoTime();
+        CompletableFuture<PaymentResult> refund = asyncImplementation.refundPaymentAsync(transactionId, amount);
+        if (isSaturated(refund)) {
+            return refund;
         }
-        return token.substring(0, 4) + "***" + token.substring(token.length() - 4);
+        String provider = asyncImplementation.getProviderName();
+        long requestId = auditLog.recordRequest(EventType.REFUND_REQUEST, provider, transactionId, amount, null);
+        return refund.thenApply(result -> {
+            auditLog.recordResult(EventType.REFUND_RESULT, requestId, provider, result,
+                System.nanoTime() - startTime);
+            return result;
+        });
+    }
+
+    // Rejected by a saturated executor before reaching the provider: not audited, the caller backs
+    // off and resubmits, and only the attempt that gets through is recorded
+    private static boolean isSaturated(CompletableFuture<PaymentResult> call) {
+        return call.isDone() && !call.isCompletedExceptionally() && AsyncPaymentAdapter.isSaturated(call.join());
     }
-}
\ No newline at end of file
+}
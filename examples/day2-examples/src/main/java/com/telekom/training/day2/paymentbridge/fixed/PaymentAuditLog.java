@@ -0,0 +1,435 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit sink used by the LoggingPaymentProcessor
+ * Payment threads only copy references into a preallocated slot of a ring buffer; a background
+ * writer formats the events, masks tokens and appends them to a rolling file or the console. A full
+ * ring drops the event and counts it instead of blocking the payment. The writer parks while the ring
+ * is empty and is woken by the next event.
+ */
+public class PaymentAuditLog implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final long DEFAULT_MAX_FILE_BYTES = 10L * 1024 * 1024;
+    public static final int DEFAULT_MAX_BACKUP_FILES = 5;
+
+    // Poll interval of callers waiting in flush(), not of the writer
+    private static final long FLUSH_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final String CONSOLE_PREFIX = "📝 AUDIT ";
+
+    /**
+     * Kind of audit event; requests carry token or transaction ID, results the outcome and duration.
+     */
+    public enum EventType {
+        PAYMENT_REQUEST, PAYMENT_RESULT, REFUND_REQUEST, REFUND_RESULT
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxBackupFiles;
+
+    // Next sequence to hand out to a producer
+    private final AtomicLong claimed = new AtomicLong();
+    // Next sequence the writer consumes; slots below it are free again
+    private volatile long consumed;
+    // Sequences below this are written and flushed to the file
+    private volatile long flushed;
+    private volatile boolean running = true;
+    // Set by the writer before it parks; producers only unpark it then
+    private volatile boolean writerParked;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final Thread writerThread;
+
+    // Writer thread state
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private long timestampMillis = Long.MIN_VALUE;
+    private String timestamp;
+    private Writer out;
+    private long fileBytes;
+    private final String linePrefix;
+
+    public PaymentAuditLog(Path file) {
+        this(file, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_BACKUP_FILES);
+    }
+
+    /**
+     * @param capacity       ring buffer slots, rounded up to a power of two
+     * @param maxFileBytes   size at which the file is rolled to file.1, file.2, ...
+     * @param maxBackupFiles rolled files to keep
+     */
+    public PaymentAuditLog(Path file, int capacity, long maxFileBytes, int maxBackupFiles) {
+        this(file, null, capacity, maxFileBytes, maxBackupFiles);
+    }
+
+    private PaymentAuditLog(Path file, Writer console, int capacity, long maxFileBytes, int maxBackupFiles) {
+        if (capacity <= 0 || maxFileBytes <= 0 || maxBackupFiles < 0) {
+            throw new IllegalArgumentException("Invalid audit log settings: capacity " + capacity
+                + ", maxFileBytes " + maxFileBytes + ", maxBackupFiles " + maxBackupFiles);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackupFiles = maxBackupFiles;
+        if (console != null) {
+            this.out = console;
+            this.linePrefix = CONSOLE_PREFIX;
+        } else {
+            this.linePrefix = "";
+            openFile();
+        }
+
+        this.writerThread = new Thread(this::drainLoop, "payment-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Log that writes one line per event to System.out, without rolling.
+     */
+    public static PaymentAuditLog console() {
+        return new PaymentAuditLog(null, new ConsoleWriter(), DEFAULT_CAPACITY, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Shared log for processors created without an explicit one. Writes to the console, or to the
+     * file named by the system property payment.audit.file if it is set and can be opened.
+     */
+    public static PaymentAuditLog defaultLog() {
+        return DefaultLogHolder.INSTANCE;
+    }
+
+    /**
+     * Records a payment or refund request.
+     * @param reference token for payments (masked when written), transaction ID for refunds
+     * @return the event ID that the matching result refers to, or -1 if the event was dropped
+     */
+    public long recordRequest(EventType type, String provider, String reference, BigDecimal amount,
+                              String currency) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return -1;
+        }
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.type = type;
+        slot.timestampMillis = System.currentTimeMillis();
+        slot.requestId = sequence;
+        slot.provider = provider;
+        slot.reference = reference;
+        slot.amount = amount;
+        slot.currency = currency;
+        slot.sequence = sequence;
+        wakeWriter();
+        return sequence;
+    }
+
+    public void recordResult(EventType type, long requestId, String provider, PaymentResult result,
+                             long durationNanos) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.type = type;
+        slot.timestampMillis = System.currentTimeMillis();
+        slot.requestId = requestId;
+        slot.provider = provider;
+        slot.result = result;
+        slot.durationNanos = durationNanos;
+        slot.sequence = sequence;
+        wakeWriter();
+    }
+
+    /**
+     * Blocks until every event recorded before this call is written and flushed to the file.
+     */
+    public void flush() {
+        long target = claimed.get();
+        while (flushed < target && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FLUSH_POLL_NANOS);
+        }
+    }
+
+    /**
+     * Writes the remaining events and closes the file. Events recorded afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Log file, null for the console log. */
+    public Path getFile() { return file; }
+    public long getRecordedEvents() { return claimed.get(); }
+    public long getWrittenEvents() { return consumed; }
+    /** Events lost because the ring buffer was full or the log was closed. */
+    public long getDroppedEvents() { return dropped.sum(); }
+    public long getWriteFailures() { return writeFailures.sum(); }
+
+    private long claim() {
+        while (running) {
+            long sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                break;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        dropped.increment();
+        return -1;
+    }
+
+    // Cheap volatile read on the hot path; the unpark only happens while the writer is idle
+    private void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void drainLoop() {
+        long next = consumed;
+        boolean dirty = false;
+        while (true) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.sequence == next) {
+                write(slot);
+                slot.clear();
+                consumed = ++next;
+                dirty = true;
+                continue;
+            }
+            if (dirty) {
+                flushFile();
+                dirty = false;
+            }
+            flushed = next;
+            if (!running && next >= claimed.get()) {
+                break;
+            }
+            // Announce the park before the last check: a producer publishing now either is seen
+            // here or sees the flag and unparks us
+            writerParked = true;
+            if (slot.sequence != next && running) {
+                LockSupport.park(this);
+            }
+            writerParked = false;
+        }
+        closeFile();
+    }
+
+    // A failure costs this one event, never the writer thread: later events are still drained
+    private void write(Slot slot) {
+        try {
+            format(slot);
+            if (file != null && fileBytes + line.length() > maxFileBytes && fileBytes > 0) {
+                rollFile();
+            }
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            line.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
+            fileBytes += length;
+        } catch (IOException | RuntimeException e) {
+            writeFailures.increment();
+            System.out.println("⚠️  AUDIT WRITE FAILED: " + e);
+        }
+    }
+
+    private void format(Slot slot) {
+        line.setLength(0);
+        line.append(linePrefix);
+        if (slot.timestampMillis != timestampMillis) {
+            timestampMillis = slot.timestampMillis;
+            timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(timestampMillis));
+        }
+        line.append(timestamp).append(' ').append(slot.type).append(" id=").append(slot.requestId)
+            .append(" provider=").append(slot.provider);
+        switch (slot.type) {
+            case PAYMENT_REQUEST:
+                line.append(" amount=").append(slot.amount).append(" currency=").append(slot.currency)
+                    .append(" token=");
+                appendMasked(slot.reference);
+                break;
+            case REFUND_REQUEST:
+                line.append(" amount=").append(slot.amount).append(" transactionId=").append(slot.reference);
+                break;
+            default:
+                line.append(" success=").append(slot.result.isSuccess())
+                    .append(" transactionId=").append(slot.result.getTransactionId())
+                    .append(" durationMicros=").append(slot.durationNanos / 1_000);
+                break;
+        }
+        line.append('\n');
+    }
+
+    private void appendMasked(String token) {
+        if (token == null || token.length() < 8) {
+            line.append("***");
+            return;
+        }
+        line.append(token, 0, 4).append("***").append(token, token.length() - 4, token.length());
+    }
+
+    // file -> file.1 -> file.2 ...; the oldest backup is deleted
+    private void rollFile() throws IOException {
+        out.close();
+        if (maxBackupFiles == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(backup(maxBackupFiles));
+            for (int i = maxBackupFiles - 1; i >= 1; i--) {
+                if (Files.exists(backup(i))) {
+                    Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        openFile();
+    }
+
+    private Path backup(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openFile() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+            fileBytes = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit log " + file, e);
+        }
+    }
+
+    private void flushFile() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            writeFailures.increment();
+            System.out.println("⚠️  AUDIT FLUSH FAILED: " + e.getMessage());
+        }
+    }
+
+    private void closeFile() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            writeFailures.increment();
+        }
+    }
+
+    // Preallocated event; the volatile sequence publishes the other fields to the writer
+    private static final class Slot {
+        private volatile long sequence = -1;
+        private EventType type;
+        private long timestampMillis;
+        private long requestId;
+        private String provider;
+        private String reference;
+        private BigDecimal amount;
+        private String currency;
+        private PaymentResult result;
+        private long durationNanos;
+
+        // Drop references so tokens and results do not linger in the ring
+        void clear() {
+            reference = null;
+            amount = null;
+            currency = null;
+            result = null;
+        }
+    }
+
+    private static final class DefaultLogHolder {
+        private static final PaymentAuditLog INSTANCE = create();
+
+        private static PaymentAuditLog create() {
+            PaymentAuditLog log = openConfiguredFile();
+            if (log == null) {
+                log = console();
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(log::close, "payment-audit-shutdown"));
+            return log;
+        }
+
+        // File output is opt-in; a file that cannot be opened must not break every processor
+        private static PaymentAuditLog openConfiguredFile() {
+            String fileName = System.getProperty("payment.audit.file");
+            if (fileName == null) {
+                return null;
+            }
+            try {
+                PaymentAuditLog log = new PaymentAuditLog(Paths.get(fileName));
+                System.out.println("📝 AUDIT log: " + log.getFile().toAbsolutePath());
+                return log;
+            } catch (UncheckedIOException | InvalidPathException e) {
+                System.out.println("⚠️  AUDIT log " + fileName + " unusable, writing to the console: "
+                    + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    // Resolves System.out on every write, so redirected output is honoured like a println
+    private static final class ConsoleWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            System.out.print(new String(buffer, offset, length));
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package com.telekom.training.day2.paymentbridge.fixed;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Bridge Pattern: Abstraction
- * Defines the abstraction's interface and maintains reference to implementation
+ * Defines the abstraction's interface and maintains reference to implementation.
+ * The *Async operations never block the caller; they run on the async side of the bridge.
  */
 public abstract class PaymentProcessor {
     
     protected final PaymentImplementation implementation;
+    protected final AsyncPaymentImplementation asyncImplementation;
 
+    /**
+     * Async operations use the shared default I/O executor,
+     * unless the implementation is natively asynchronous.
+     */
     public PaymentProcessor(PaymentImplementation implementation) {
         this.implementation = implementation;
+        this.asyncImplementation = implementation instanceof AsyncPaymentImplementation
+            ? (AsyncPaymentImplementation) implementation
+            : new AsyncPaymentAdapter(implementation);
+    }
+
+    public PaymentProcessor(PaymentImplementation implementation, Executor ioExecutor) {
+        this.implementation = implementation;
+        this.asyncImplementation = new AsyncPaymentAdapter(implementation, ioExecutor);
     }
 
     public abstract PaymentResult processPayment(String token, BigDecimal amount, String currency);
     public abstract PaymentResult refundPayment(String transactionId, BigDecimal amount);
+    public abstract CompletableFuture<PaymentResult> processPaymentAsync(String token, BigDecimal amount,
+                                                                         String currency);
+    public abstract CompletableFuture<PaymentResult> refundPaymentAsync(String transactionId, BigDecimal amount);
     
     public String getProviderName() {
         return implementation.getProviderName();
@@ -0,0 +1,322 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bridge Pattern: Concrete Implementation that routes between providers
+ * Keeps a rolling window of latencies and errors per provider and sends each payment to the
+ * healthiest one. A small share of payments probes the other providers so their windows stay current.
+ * With hedging enabled, a payment still running after the provider's p95 latency is sent a second time,
+ * to the same provider with the same idempotency key; the first answer wins. Only providers that
+ * deduplicate by idempotency key are hedged, so a hedge can never book a second charge.
+ * Refunds always go to the provider that processed the payment.
+ */
+public class RoutingPaymentImplementation implements PaymentImplementation, AsyncPaymentImplementation {
+
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+    public static final int DEFAULT_PROBE_INTERVAL = 20;
+
+    // Samples a provider needs before its p95 is trusted as hedge delay
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final double ERROR_PENALTY = 10.0;
+    private static final int MAX_TRACKED_TRANSACTIONS = 100_000;
+
+    private final List<Provider> providers;
+    private final boolean hedging;
+    private final int probeInterval;
+    private final AtomicLong requests = new AtomicLong();
+    private final LongAdder hedgedRequests = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    // Which provider owns a transaction, so refunds reach it; bounded LRU
+    private final Map<String, Provider> transactionOwners = Collections.synchronizedMap(
+        new LinkedHashMap<String, Provider>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Provider> eldest) {
+                return size() > MAX_TRACKED_TRANSACTIONS;
+            }
+        });
+
+    private RoutingPaymentImplementation(Builder builder) {
+        this.providers = new ArrayList<>(builder.implementations.size());
+        for (AsyncPaymentImplementation implementation : builder.implementations) {
+            providers.add(new Provider(implementation, builder.windowSize));
+        }
+        this.hedging = builder.hedging;
+        this.probeInterval = builder.probeInterval;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
+        return processPaymentAsync(token, amount, currency).join();
+    }
+
+    @Override
+    public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+        return refundPaymentAsync(transactionId, amount).join();
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(String token, BigDecimal amount, String currency) {
+        List<Provider> ranked = rank();
+        Provider primary = ranked.get(0);
+        CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        boolean hedge = hedging && primary.idempotent != null && primary.sampleCount() >= MIN_HEDGE_SAMPLES;
+        // Both attempts carry the same key, so the provider books the charge at most once
+        String idempotencyKey = hedge ? UUID.randomUUID().toString() : null;
+        attempt(primary, idempotencyKey, token, amount, currency, result, pending, false);
+
+        if (hedge) {
+            long delayNanos = primary.percentileNanos(95);
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                // Register before checking, so a failing primary cannot complete the result in between
+                pending.incrementAndGet();
+                if (result.isDone()) {
+                    pending.decrementAndGet();
+                    return;
+                }
+                hedgedRequests.increment();
+                System.out.println("🔀 HEDGE: " + primary.name + " slower than p95 ("
+                    + delayNanos / 1_000_000 + "ms), repeating " + idempotencyKey);
+                attempt(primary, idempotencyKey, token, amount, currency, result, pending, true);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> refundPaymentAsync(String transactionId, BigDecimal amount) {
+        Provider owner = transactionOwners.get(transactionId);
+        if (owner == null) {
+            return CompletableFuture.completedFuture(new PaymentResult(null, false,
+                "Unknown transaction: " + transactionId, getProviderName()));
+        }
+        long start = System.nanoTime();
+        return owner.implementation.refundPaymentAsync(transactionId, amount)
+            .whenComplete((refund, error) -> owner.record(System.nanoTime() - start,
+                error == null && refund.isSuccess()));
+    }
+
+    @Override
+    public String getProviderName() {
+        StringBuilder name = new StringBuilder("Routing(");
+        for (int i = 0; i < providers.size(); i++) {
+            name.append(i == 0 ? "" : ",").append(providers.get(i).name);
+        }
+        return name.append(')').toString();
+    }
+
+    public long getHedgedRequests() { return hedgedRequests.sum(); }
+    /** Hedged requests whose second attempt delivered the result. */
+    public long getHedgeWins() { return hedgeWins.sum(); }
+
+    public long getRoutedRequests(String providerName) {
+        return provider(providerName).routed.sum();
+    }
+
+    public double getP95Millis(String providerName) {
+        return provider(providerName).percentileNanos(95) / 1_000_000.0;
+    }
+
+    public double getErrorRate(String providerName) {
+        return provider(providerName).errorRate();
+    }
+
+    private void attempt(Provider provider, String idempotencyKey, String token, BigDecimal amount, String currency,
+                         CompletableFuture<PaymentResult> result, AtomicInteger pending, boolean hedge) {
+        provider.routed.increment();
+        long start = System.nanoTime();
+        CompletableFuture<PaymentResult> payment = idempotencyKey != null
+            ? provider.idempotent.processPaymentAsync(idempotencyKey, token, amount, currency)
+            : provider.implementation.processPaymentAsync(token, amount, currency);
+        payment.whenComplete((charge, error) -> {
+            PaymentResult outcome = error == null ? charge
+                : new PaymentResult(null, false, provider.name + " error: " + error.getMessage(), provider.name);
+            provider.record(System.nanoTime() - start, outcome.isSuccess());
+
+            if (outcome.isSuccess()) {
+                // Register the owner before the caller can see the result and ask for a refund.
+                // A losing hedge reports the same deduplicated charge, so there is nothing to undo.
+                transactionOwners.put(outcome.getTransactionId(), provider);
+                if (result.complete(outcome) && hedge) {
+                    hedgeWins.increment();
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.complete(outcome); // every attempt failed: report the last failure
+            }
+        });
+    }
+
+    // Providers ordered by score; every probeInterval-th request promotes a random other provider
+    private List<Provider> rank() {
+        Provider[] ranked = providers.toArray(new Provider[0]);
+        double[] scores = new double[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            scores[i] = ranked[i].score();
+        }
+        Integer[] order = new Integer[ranked.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> scores[i]));
+        List<Provider> result = new ArrayList<>(ranked.length);
+        for (Integer i : order) {
+            result.add(ranked[i]);
+        }
+        if (result.size() > 1 && requests.incrementAndGet() % probeInterval == 0) {
+            int probe = 1 + ThreadLocalRandom.current().nextInt(result.size() - 1);
+            Collections.swap(result, 0, probe);
+        }
+        return result;
+    }
+
+    private Provider provider(String providerName) {
+        for (Provider provider : providers) {
+            if (provider.name.equals(providerName)) {
+                return provider;
+            }
+        }
+        throw new IllegalArgumentException("Unknown provider: " + providerName);
+    }
+
+    // One routing target with its rolling latency/error window
+    private static final class Provider {
+        private final String name;
+        private final AsyncPaymentImplementation implementation;
+        // Keyed charges for hedging, null if the provider does not deduplicate by idempotency key
+        private final AsyncPaymentAdapter idempotent;
+        private final long[] latencies;
+        private final boolean[] failures;
+        private final LongAdder routed = new LongAdder();
+        private int next;
+        private int count;
+
+        Provider(AsyncPaymentImplementation implementation, int windowSize) {
+            this.name = implementation.getProviderName();
+            this.implementation = implementation;
+            this.idempotent = implementation instanceof AsyncPaymentAdapter
+                && ((AsyncPaymentAdapter) implementation).supportsIdempotencyKeys()
+                ? (AsyncPaymentAdapter) implementation : null;
+            this.latencies = new long[windowSize];
+            this.failures = new boolean[windowSize];
+        }
+
+        synchronized void record(long latencyNanos, boolean success) {
+            latencies[next] = latencyNanos;
+            failures[next] = !success;
+            next = (next + 1) % latencies.length;
+            count = Math.min(count + 1, latencies.length);
+        }
+
+        synchronized int sampleCount() {
+            return count;
+        }
+
+        synchronized long percentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, index)];
+        }
+
+        synchronized double errorRate() {
+            if (count == 0) {
+                return 0.0;
+            }
+            int errors = 0;
+            for (int i = 0; i < count; i++) {
+                if (failures[i]) {
+                    errors++;
+                }
+            }
+            return (double) errors / count;
+        }
+
+        // Lower is better; a provider without samples is tried first
+        synchronized double score() {
+            if (count == 0) {
+                return 0.0;
+            }
+            return percentileNanos(95) * (1.0 + ERROR_PENALTY * errorRate());
+        }
+    }
+
+    /**
+     * Builder for the provider set and the routing options.
+     */
+    public static class Builder {
+        private final List<AsyncPaymentImplementation> implementations = new ArrayList<>();
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+        private int probeInterval = DEFAULT_PROBE_INTERVAL;
+        private boolean hedging;
+
+        private Builder() {
+        }
+
+        public Builder withProvider(AsyncPaymentImplementation implementation) {
+            implementations.add(implementation);
+            return this;
+        }
+
+        /**
+         * Adds a blocking provider that is called on the given I/O executor.
+         */
+        public Builder withProvider(PaymentImplementation implementation, Executor ioExecutor) {
+            return withProvider(new AsyncPaymentAdapter(implementation, ioExecutor));
+        }
+
+        /** Number of recent calls per provider that latency and error rate are computed from. */
+        public Builder withWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /** Every n-th payment goes to a random non-preferred provider to refresh its window. */
+        public Builder withProbeInterval(int probeInterval) {
+            this.probeInterval = probeInterval;
+            return this;
+        }
+
+        /**
+         * Hedged payments for providers that implement IdempotentPaymentImplementation; payments to
+         * other providers are never sent twice.
+         */
+        public Builder withHedging(boolean hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        public RoutingPaymentImplementation build() {
+            if (implementations.isEmpty()) {
+                throw new IllegalStateException("At least one provider is required");
+            }
+            if (windowSize <= 0 || probeInterval <= 0) {
+                throw new IllegalStateException("windowSize and probeInterval must be positive");
+            }
+            return new RoutingPaymentImplementation(this);
+        }
+    }
+}
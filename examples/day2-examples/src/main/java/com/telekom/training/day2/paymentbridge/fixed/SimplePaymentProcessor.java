@@ -1,6 +1,8 @@
 package com.telekom.training.day2.paymentbridge.fixed;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Bridge Pattern: Refined Abstraction
@@ -12,6 +14,10 @@ public class SimplePaymentProcessor extends PaymentProcessor {
         super(implementation);
     }
 
+    public SimplePaymentProcessor(PaymentImplementation implementation, Executor ioExecutor) {
+        super(implementation, ioExecutor);
+    }
+
     @Override
     public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
         System.out.println("🔄 Processing payment via " + implementation.getProviderName());
@@ -23,4 +29,16 @@ public class SimplePaymentProcessor extends PaymentProcessor {
         System.out.println("🔄 Processing refund via " + implementation.getProviderName());
         return implementation.refundPayment(transactionId, amount);
     }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(String token, BigDecimal amount, String currency) {
+        System.out.println("🔄 Submitting payment via " + asyncImplementation.getProviderName());
+        return asyncImplementation.processPaymentAsync(token, amount, currency);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> refundPaymentAsync(String transactionId, BigDecimal amount) {
+        System.out.println("🔄 Submitting refund via " + asyncImplementation.getProviderName());
+        return asyncImplementation.refundPaymentAsync(transactionId, amount);
+    }
 }
\ No newline at end of file
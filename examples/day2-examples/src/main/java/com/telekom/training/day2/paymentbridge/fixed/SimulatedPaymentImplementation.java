@@ -0,0 +1,127 @@
+package com.telekom.training.day2.paymentbridge.fixed;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bridge Pattern: Concrete Implementation for tests and benchmarks
+ * Payment provider stand-in whose latency and failure behaviour can be changed at runtime,
+ * e.g. to let one provider slow down in the middle of a run.
+ * Keyed charges are deduplicated like at a real provider: the first call with a key that gets through
+ * books the charge, later calls with the key get the same result back.
+ */
+public class SimulatedPaymentImplementation implements IdempotentPaymentImplementation {
+
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final String providerName;
+    private final AtomicLong calls = new AtomicLong();
+    private final LongAdder payments = new LongAdder();
+    private final LongAdder refunds = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    // Successful charge per idempotency key; bounded LRU
+    private final Map<String, PaymentResult> charges = Collections.synchronizedMap(
+        new LinkedHashMap<String, PaymentResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PaymentResult> eldest) {
+                return size() > MAX_TRACKED_KEYS;
+            }
+        });
+    private volatile long latencyMs;
+    private volatile int slowEvery;
+    private volatile long slowLatencyMs;
+    private volatile double failureRate;
+
+    public SimulatedPaymentImplementation(String providerName, long latencyMs) {
+        this.providerName = providerName;
+        this.latencyMs = latencyMs;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * Makes every n-th call take slowLatencyMs instead (0 disables), a deterministic latency tail.
+     */
+    public void setSlowCalls(int every, long slowLatencyMs) {
+        this.slowEvery = every;
+        this.slowLatencyMs = slowLatencyMs;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
+        return charge(simulateCall());
+    }
+
+    @Override
+    public PaymentResult processPayment(String idempotencyKey, String token, BigDecimal amount, String currency) {
+        long call = simulateCall();
+        // Declined charges are not stored, so a retry with the same key can still succeed
+        PaymentResult[] booked = new PaymentResult[1];
+        PaymentResult result = charges.computeIfAbsent(idempotencyKey, key -> {
+            PaymentResult charge = charge(call);
+            booked[0] = charge;
+            return charge.isSuccess() ? charge : null;
+        });
+        if (booked[0] != null) {
+            return booked[0];
+        }
+        deduplicated.increment();
+        return result;
+    }
+
+    @Override
+    public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+        long call = simulateCall();
+        refunds.increment();
+        return new PaymentResult(providerName + "_REF_" + call, true, "Refund successful", providerName);
+    }
+
+    @Override
+    public String getProviderName() {
+        return providerName;
+    }
+
+    public long getPaymentCount() {
+        return payments.sum();
+    }
+
+    public long getRefundCount() {
+        return refunds.sum();
+    }
+
+    /** Keyed calls answered with an already booked charge instead of charging again. */
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    private PaymentResult charge(long call) {
+        payments.increment();
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return new PaymentResult(null, false, providerName + " unavailable", providerName);
+        }
+        return new PaymentResult(providerName + "_" + call, true, "Payment successful", providerName);
+    }
+
+    private long simulateCall() {
+        long call = calls.incrementAndGet();
+        int every = slowEvery;
+        long sleepMs = every > 0 && call % every == 0 ? slowLatencyMs : latencyMs;
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return call;
+    }
+}
@@ -8,11 +8,13 @@ import java.math.BigDecimal;
  */
 public class SingleTariff extends TariffComponent {
     private final BigDecimal price;
+    private final long priceCents;
     private final String category;
 
     public SingleTariff(String name, BigDecimal price, String category) {
         super(name);
         this.price = price;
+        this.priceCents = price.movePointRight(2).longValueExact(); // rejects fractions of a cent
         this.category = category;
     }
 
@@ -21,6 +23,11 @@ public class SingleTariff extends TariffComponent {
         return price;
     }
 
+    @Override
+    public long getPriceCents() {
+        return priceCents;
+    }
+
     public String getCategory() {
         return category;
     }
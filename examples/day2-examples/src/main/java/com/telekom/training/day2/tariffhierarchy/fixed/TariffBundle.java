@@ -6,26 +6,49 @@ import java.util.List;
 
 /**
  * Composite Pattern: Composite
- * Defines behavior for components having children and stores child components
+ * Defines behavior for components having children and stores child components.
+ * The aggregated price is summed in euro cents and cached; add/remove invalidate only this bundle
+ * and its ancestors.
+ * A component belongs to at most one bundle. Edits are not thread-safe, reads of a finished tree are.
  */
 public class TariffBundle extends TariffComponent {
     private final List<TariffComponent> components;
+    private static final long NOT_CACHED = Long.MIN_VALUE;
+
     private final BigDecimal discount;
+    private final long discountCents;
+    private volatile long cachedPriceCents = NOT_CACHED;
+    private volatile BigDecimal cachedPrice;
 
     public TariffBundle(String name, BigDecimal discount) {
         super(name);
         this.components = new ArrayList<>();
         this.discount = discount;
+        this.discountCents = discount.movePointRight(2).longValueExact();
     }
 
     @Override
     public void add(TariffComponent component) {
+        if (component.getParent() != null) {
+            throw new IllegalArgumentException(component.getName() + " already belongs to bundle "
+                + component.getParent().getName());
+        }
+        for (TariffBundle ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor == component) {
+                throw new IllegalArgumentException("Adding " + component.getName() + " would create a cycle");
+            }
+        }
         components.add(component);
+        component.setParent(this);
+        invalidatePrice();
     }
 
     @Override
     public void remove(TariffComponent component) {
-        components.remove(component);
+        if (components.remove(component)) {
+            component.setParent(null);
+            invalidatePrice();
+        }
     }
 
     @Override
@@ -35,14 +58,40 @@ public class TariffBundle extends TariffComponent {
 
     @Override
     public BigDecimal getPrice() {
-        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal price = cachedPrice;
+        if (price == null) {
+            price = BigDecimal.valueOf(getPriceCents(), 2);
+            cachedPrice = price;
+        }
+        return price;
+    }
+
+    @Override
+    public long getPriceCents() {
+        long price = cachedPriceCents;
+        if (price != NOT_CACHED) {
+            return price;
+        }
+        long total = 0;
         
         // Uniform treatment: all components have same interface
         for (TariffComponent component : components) {
-            total = total.add(component.getPrice());
+            total += component.getPriceCents();
         }
         
-        return total.subtract(discount);
+        price = total - discountCents;
+        cachedPriceCents = price;
+        return price;
+    }
+
+    // Clears the cached price along the path to the root; stops early where it is already cleared,
+    // because an ancestor of an uncached bundle can never hold a cached price
+    private void invalidatePrice() {
+        for (TariffBundle bundle = this; bundle != null && bundle.cachedPriceCents != NOT_CACHED;
+                bundle = bundle.getParent()) {
+            bundle.cachedPriceCents = NOT_CACHED;
+            bundle.cachedPrice = null;
+        }
     }
 
     public BigDecimal getDiscount() {
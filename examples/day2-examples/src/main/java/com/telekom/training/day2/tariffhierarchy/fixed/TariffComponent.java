@@ -10,6 +10,8 @@ import java.util.List;
  */
 public abstract class TariffComponent {
     protected String name;
+    // Enclosing bundle; lets a change invalidate cached prices up the tree
+    private TariffBundle parent;
 
     public TariffComponent(String name) {
         this.name = name;
@@ -19,8 +21,18 @@ public abstract class TariffComponent {
         return name;
     }
 
+    public TariffBundle getParent() {
+        return parent;
+    }
+
+    void setParent(TariffBundle parent) {
+        this.parent = parent;
+    }
+
     // Common interface for all components
     public abstract BigDecimal getPrice();
+    /** Same price in euro cents; the allocation-free path for hot pricing loops. */
+    public abstract long getPriceCents();
     public abstract void printStructure(String prefix);
     
     // Default implementation for composite operations
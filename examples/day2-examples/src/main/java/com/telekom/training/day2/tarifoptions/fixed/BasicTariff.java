@@ -9,6 +9,7 @@ import java.math.BigDecimal;
 public class BasicTariff implements Tariff {
     private final String name;
     private final BigDecimal basePrice;
+    private final long basePriceCents;
     private final int includedMinutes;
     private final int includedSms;
     private final int includedDataMB;
@@ -16,6 +17,7 @@ public class BasicTariff implements Tariff {
     public BasicTariff(String name, BigDecimal basePrice, int includedMinutes, int includedSms, int includedDataMB) {
         this.name = name;
         this.basePrice = basePrice;
+        this.basePriceCents = basePrice.movePointRight(2).longValueExact(); // rejects fractions of a cent
         this.includedMinutes = includedMinutes;
         this.includedSms = includedSms;
         this.includedDataMB = includedDataMB;
@@ -31,6 +33,11 @@ public class BasicTariff implements Tariff {
         return basePrice;
     }
 
+    @Override
+    public long getPriceCents() {
+        return basePriceCents;
+    }
+
     @Override
     public String getDescription() {
         return String.format("Tarif: %s - %d Minuten, %d SMS, %d MB für %.2f€",
@@ -1,21 +1,19 @@
 package com.telekom.training.day2.tarifoptions.fixed;
 
-import java.math.BigDecimal;
-
 /**
  * Decorator Pattern: Concrete Decorator
  * Adds flatrate option to any tariff without changing the original tariff
  */
 public class FlatrateDecorator extends TariffDecorator {
-    private static final BigDecimal FLATRATE_COST = new BigDecimal("15.00");
+    private static final long FLATRATE_COST_CENTS = 1500;
 
     public FlatrateDecorator(Tariff tariff) {
         super(tariff);
     }
 
     @Override
-    public BigDecimal getPrice() {
-        return tariff.getPrice().add(FLATRATE_COST);
+    public long getPriceCents() {
+        return tariff.getPriceCents() + FLATRATE_COST_CENTS;
     }
 
     @Override
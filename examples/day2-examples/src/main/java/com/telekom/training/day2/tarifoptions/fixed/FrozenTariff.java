@@ -0,0 +1,121 @@
+package com.telekom.training.day2.tarifoptions.fixed;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Flattened, immutable form of a decorator chain
+ * freeze() walks the chain once and stores price, allowances and description, so every getter is a
+ * field read instead of a recursion through all decorators. The base tariff and the option list are
+ * kept, so thaw() rebuilds an equivalent decorator chain for further configuration.
+ */
+public final class FrozenTariff implements Tariff {
+    private final Tariff base;
+    private final List<TariffOption> options;
+    private final String name;
+    private final BigDecimal price;
+    private final long priceCents;
+    private final String description;
+    private final int includedMinutes;
+    private final int includedSms;
+    private final int includedDataMB;
+
+    private FrozenTariff(Tariff base, List<TariffOption> options, Tariff chain) {
+        this.base = base;
+        this.options = Collections.unmodifiableList(options);
+        this.name = chain.getName();
+        this.priceCents = chain.getPriceCents();
+        this.price = chain.getPrice();
+        this.description = chain.getDescription();
+        this.includedMinutes = chain.getIncludedMinutes();
+        this.includedSms = chain.getIncludedSms();
+        this.includedDataMB = chain.getIncludedDataMB();
+    }
+
+    /**
+     * Compiles a tariff with any number of options into one flat tariff.
+     * Frozen tariffs inside the chain are unpacked, so the result never nests.
+     */
+    public static FrozenTariff freeze(Tariff tariff) {
+        if (tariff instanceof FrozenTariff) {
+            return (FrozenTariff) tariff;
+        }
+
+        // Walk from the outermost decorator inwards, then reverse to application order
+        List<TariffOption> options = new ArrayList<>();
+        Tariff current = tariff;
+        while (current instanceof TariffDecorator) {
+            TariffDecorator decorator = (TariffDecorator) current;
+            options.add(TariffOption.of(decorator));
+            current = decorator.tariff;
+        }
+        Collections.reverse(options);
+
+        Tariff base = current;
+        if (base instanceof FrozenTariff) {
+            FrozenTariff inner = (FrozenTariff) base;
+            List<TariffOption> merged = new ArrayList<>(inner.options);
+            merged.addAll(options);
+            options = merged;
+            base = inner.base;
+        }
+        return new FrozenTariff(base, options, tariff);
+    }
+
+    /**
+     * @return a decorator chain equivalent to the tariff that was frozen
+     */
+    public Tariff thaw() {
+        Tariff tariff = base;
+        for (TariffOption option : options) {
+            tariff = option.decorate(tariff);
+        }
+        return tariff;
+    }
+
+    public Tariff getBase() {
+        return base;
+    }
+
+    /** Options in the order they were applied, innermost first. */
+    public List<TariffOption> getOptions() {
+        return options;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public int getIncludedMinutes() {
+        return includedMinutes;
+    }
+
+    @Override
+    public int getIncludedSms() {
+        return includedSms;
+    }
+
+    @Override
+    public int getIncludedDataMB() {
+        return includedDataMB;
+    }
+}
@@ -1,21 +1,19 @@
 package com.telekom.training.day2.tarifoptions.fixed;
 
-import java.math.BigDecimal;
-
 /**
  * Decorator Pattern: Concrete Decorator
  * Adds insurance option to any tariff - demonstrating easy extensibility
  */
 public class InsuranceDecorator extends TariffDecorator {
-    private static final BigDecimal INSURANCE_COST = new BigDecimal("4.99");
+    private static final long INSURANCE_COST_CENTS = 499;
 
     public InsuranceDecorator(Tariff tariff) {
         super(tariff);
     }
 
     @Override
-    public BigDecimal getPrice() {
-        return tariff.getPrice().add(INSURANCE_COST);
+    public long getPriceCents() {
+        return tariff.getPriceCents() + INSURANCE_COST_CENTS;
     }
 
     @Override
@@ -9,6 +9,8 @@ import java.math.BigDecimal;
 public interface Tariff {
     String getName();
     BigDecimal getPrice();
+    /** Same price in euro cents; the allocation-free path for hot pricing loops. */
+    long getPriceCents();
     String getDescription();
     int getIncludedMinutes();
     int getIncludedSms();
@@ -0,0 +1,237 @@
+package com.telekom.training.day2.tarifoptions.fixed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flyweight Pattern: Flyweight Factory for decorated tariffs
+ * Customers with the same base tariff and the same set of options share one immutable
+ * {@link FrozenTariff}. Per base tariff the shared instances sit in a small array indexed by the
+ * option sequence, so a lookup is one hash probe plus one array read.
+ * The sequence keeps the booking order, so a shared tariff has the same description as the stack it
+ * replaces; the same options booked in another order get their own shared instance.
+ */
+public class TariffCatalog {
+
+    // Rough sizes with compressed oops, used for the savings estimate only; a base tariff includes its BigDecimal
+    static final int DECORATOR_BYTES = 16;
+    static final int BASIC_TARIFF_BYTES = 80;
+    static final int FROZEN_TARIFF_BYTES = 48;
+
+    private static final TariffOption[] OPTIONS = TariffOption.values();
+    // Sequence index: options in application order as digits (ordinal + 1) in base RADIX, 0 = no options
+    private static final int RADIX = OPTIONS.length + 1;
+    private static final int SEQUENCES = (int) Math.pow(RADIX, OPTIONS.length);
+
+    private final ConcurrentMap<BaseKey, Variants> catalog = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder sharedInstances = new LongAdder();
+    private final LongAdder unshareable = new LongAdder();
+    private final LongAdder objectsSaved = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Returns the shared instance for the given tariff. Tariffs that cannot be shared (a base other
+     * than BasicTariff, or an option booked twice) are returned frozen but unshared.
+     */
+    public Tariff intern(Tariff tariff) {
+        requests.increment();
+
+        Tariff base;
+        List<TariffOption> options;
+        if (tariff instanceof FrozenTariff) {
+            FrozenTariff frozen = (FrozenTariff) tariff;
+            base = frozen.getBase();
+            options = frozen.getOptions();
+        } else {
+            options = new ArrayList<>();
+            base = tariff;
+            while (base instanceof TariffDecorator) {
+                TariffDecorator decorator = (TariffDecorator) base;
+                options.add(TariffOption.of(decorator));
+                base = decorator.tariff;
+            }
+            if (base instanceof FrozenTariff) {
+                // Mixed chain: let freeze() merge the options
+                return intern(FrozenTariff.freeze(tariff));
+            }
+            Collections.reverse(options);
+        }
+
+        int mask = 0;
+        for (TariffOption option : options) {
+            if ((mask & option.bit()) != 0) {
+                unshareable.increment();
+                return FrozenTariff.freeze(tariff);
+            }
+            mask |= option.bit();
+        }
+        if (!(base instanceof BasicTariff)) {
+            unshareable.increment();
+            return FrozenTariff.freeze(tariff);
+        }
+
+        FrozenTariff shared = lookup((BasicTariff) base, sequence(options));
+        if (shared != tariff) {
+            // The caller's own graph can be dropped: its decorators or frozen tariff, and its base
+            // unless that is the canonical one
+            long objects = tariff instanceof FrozenTariff ? 1 : options.size();
+            long bytes = tariff instanceof FrozenTariff ? FROZEN_TARIFF_BYTES : objects * DECORATOR_BYTES;
+            if (base != shared.getBase()) {
+                objects++;
+                bytes += BASIC_TARIFF_BYTES;
+            }
+            objectsSaved.add(objects);
+            bytesSaved.add(bytes);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the shared tariff for a base tariff with the given options, applied in the given order.
+     * An option listed twice is applied once.
+     */
+    public Tariff get(BasicTariff base, TariffOption... options) {
+        requests.increment();
+        List<TariffOption> distinct = new ArrayList<>(options.length);
+        for (TariffOption option : options) {
+            if (!distinct.contains(option)) {
+                distinct.add(option);
+            }
+        }
+        return lookup(base, sequence(distinct));
+    }
+
+    public CatalogStats getStats() {
+        return new CatalogStats(requests.sum(), catalog.size(), sharedInstances.sum(), unshareable.sum(),
+            objectsSaved.sum(), bytesSaved.sum());
+    }
+
+    private FrozenTariff lookup(BasicTariff base, int sequence) {
+        Variants variants = catalog.computeIfAbsent(new BaseKey(base), key -> new Variants(base));
+        FrozenTariff shared = variants.tariffs.get(sequence);
+        if (shared != null) {
+            return shared;
+        }
+
+        // Most significant digit is the innermost option
+        Tariff tariff = variants.base;
+        for (int scale = SEQUENCES / RADIX; scale > 0; scale /= RADIX) {
+            int digit = sequence / scale % RADIX;
+            if (digit != 0) {
+                tariff = OPTIONS[digit - 1].decorate(tariff);
+            }
+        }
+        FrozenTariff created = FrozenTariff.freeze(tariff);
+        if (variants.tariffs.compareAndSet(sequence, null, created)) {
+            sharedInstances.increment();
+            return created;
+        }
+        return variants.tariffs.get(sequence);
+    }
+
+    // Options in application order, each at most once
+    private static int sequence(List<TariffOption> options) {
+        int sequence = 0;
+        for (TariffOption option : options) {
+            sequence = sequence * RADIX + option.ordinal() + 1;
+        }
+        return sequence;
+    }
+
+    // All shared tariffs of one base tariff; the first base seen for a key is the canonical one
+    private static final class Variants {
+        private final BasicTariff base;
+        private final AtomicReferenceArray<FrozenTariff> tariffs = new AtomicReferenceArray<>(SEQUENCES);
+
+        Variants(BasicTariff base) {
+            this.base = base;
+        }
+    }
+
+    // Value identity of a BasicTariff
+    private static final class BaseKey {
+        private final String name;
+        private final long priceCents;
+        private final int includedMinutes;
+        private final int includedSms;
+        private final int includedDataMB;
+
+        BaseKey(BasicTariff base) {
+            this.name = base.getName();
+            this.priceCents = base.getPriceCents();
+            this.includedMinutes = base.getIncludedMinutes();
+            this.includedSms = base.getIncludedSms();
+            this.includedDataMB = base.getIncludedDataMB();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BaseKey)) {
+                return false;
+            }
+            BaseKey other = (BaseKey) o;
+            return priceCents == other.priceCents
+                && includedMinutes == other.includedMinutes
+                && includedSms == other.includedSms
+                && includedDataMB == other.includedDataMB
+                && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = name.hashCode();
+            result = 31 * result + Long.hashCode(priceCents);
+            result = 31 * result + includedMinutes;
+            result = 31 * result + includedSms;
+            result = 31 * result + includedDataMB;
+            return result;
+        }
+    }
+
+    /**
+     * Catalog statistics; bytes saved is an estimate from shallow object sizes.
+     */
+    public static class CatalogStats {
+        private final long requests;
+        private final int baseTariffs;
+        private final long sharedInstances;
+        private final long unshareable;
+        private final long objectsSaved;
+        private final long bytesSaved;
+
+        public CatalogStats(long requests, int baseTariffs, long sharedInstances, long unshareable,
+                            long objectsSaved, long bytesSaved) {
+            this.requests = requests;
+            this.baseTariffs = baseTariffs;
+            this.sharedInstances = sharedInstances;
+            this.unshareable = unshareable;
+            this.objectsSaved = objectsSaved;
+            this.bytesSaved = bytesSaved;
+        }
+
+        public long getRequests() { return requests; }
+        public int getBaseTariffs() { return baseTariffs; }
+        /** Distinct shared tariffs created (base tariff x option sequence). */
+        public long getSharedInstances() { return sharedInstances; }
+        public long getUnshareable() { return unshareable; }
+        /** Tariff and decorator objects callers could drop because a shared instance replaced them. */
+        public long getObjectsSaved() { return objectsSaved; }
+        public long getEstimatedBytesSaved() { return bytesSaved; }
+
+        @Override
+        public String toString() {
+            return String.format("CatalogStats{requests=%d, baseTariffs=%d, sharedInstances=%d, unshareable=%d, "
+                + "objectsSaved=%d, estimatedBytesSaved=%d}",
+                requests, baseTariffs, sharedInstances, unshareable, objectsSaved, bytesSaved);
+        }
+    }
+}
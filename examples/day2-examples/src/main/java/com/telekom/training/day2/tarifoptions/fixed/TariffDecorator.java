@@ -19,9 +19,15 @@ public abstract class TariffDecorator implements Tariff {
         return tariff.getName();
     }
 
+    // Decorators price in cents; only the outermost getPrice() call creates a BigDecimal
     @Override
     public BigDecimal getPrice() {
-        return tariff.getPrice();
+        return BigDecimal.valueOf(getPriceCents(), 2);
+    }
+
+    @Override
+    public long getPriceCents() {
+        return tariff.getPriceCents();
     }
 
     @Override
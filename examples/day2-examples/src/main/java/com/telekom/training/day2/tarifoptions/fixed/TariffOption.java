@@ -0,0 +1,39 @@
+package com.telekom.training.day2.tarifoptions.fixed;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * The bookable tariff options, one per concrete decorator.
+ * Lets a decorator chain be described as data (e.g. by FrozenTariff) and rebuilt from it.
+ */
+public enum TariffOption {
+    FLATRATE(FlatrateDecorator.class, FlatrateDecorator::new),
+    ROAMING(RoamingDecorator.class, RoamingDecorator::new),
+    INSURANCE(InsuranceDecorator.class, InsuranceDecorator::new);
+
+    private final Class<? extends TariffDecorator> decoratorType;
+    private final UnaryOperator<Tariff> decorator;
+
+    TariffOption(Class<? extends TariffDecorator> decoratorType, UnaryOperator<Tariff> decorator) {
+        this.decoratorType = decoratorType;
+        this.decorator = decorator;
+    }
+
+    /** Bit of this option in an option mask, see TariffCatalog. */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public Tariff decorate(Tariff tariff) {
+        return decorator.apply(tariff);
+    }
+
+    public static TariffOption of(TariffDecorator decorator) {
+        for (TariffOption option : values()) {
+            if (option.decoratorType == decorator.getClass()) {
+                return option;
+            }
+        }
+        throw new IllegalArgumentException("No tariff option for decorator " + decorator.getClass().getName());
+    }
+}
@@ -4,6 +4,20 @@ import com.telekom.training.day2.customercaching.fixed.*;
 import com.telekom.training.day2.customercaching.initial.Customer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -152,4 +166,433 @@ class CustomerCachingTest {
         assertEquals(2, stats.getMisses(), "Different query types should use different cache keys");
         assertEquals(2, stats.getSize(), "Should have 2 different cache entries");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Concurrent hits are counted exactly")
+    void testConcurrentHitCounting() throws Exception {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        CachedCustomerServiceProxy proxy = new CachedCustomerServiceProxy(realService, 5000);
+        proxy.getCustomer("CUST001");
+
+        int threads = 8;
+        int callsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < callsPerThread; i++) {
+                        assertEquals("CUST001", proxy.getCustomer("CUST001").getCustomerId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        CachedCustomerServiceProxy.CacheStats stats = proxy.getCacheStats();
+        assertEquals(threads * callsPerThread, stats.getHits(), "No hit may be lost under contention");
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("Segmented LRU stays bounded and keeps frequently used entries")
+    void testSegmentedLruEviction() {
+        SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(4, 1);
+
+        cache.put("hot", "hot");
+        cache.get("hot"); // second access promotes to protected area
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan_" + i, "value");
+        }
+
+        assertEquals(4, cache.size(), "Cache must never grow beyond maximum size");
+        assertEquals(97, cache.getEvictionCount());
+        assertEquals("hot", cache.get("hot"), "Scan must not flush the protected entry");
+        assertEquals(4, cache.segmentSizes()[0]);
+    }
+
+    @Test
+    @DisplayName("Concurrent misses for the same customer share one database call")
+    void testSingleFlightLoading() throws Exception {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        CachedCustomerServiceProxy proxy = new CachedCustomerServiceProxy(realService, 5000);
+
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Customer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return proxy.getCustomer("CUST002");
+                }));
+            }
+            start.countDown();
+            for (Future<Customer> future : futures) {
+                assertEquals("CUST002", future.get().getCustomerId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        CachedCustomerServiceProxy.CacheStats stats = proxy.getCacheStats();
+        System.out.println("📊 Single-flight Stats: " + stats);
+
+        assertEquals(1, realService.getDbCallCount(), "Only one caller may go to the database");
+        assertTrue(stats.getCoalescedLoads() > 0, "Waiting callers should be counted as coalesced");
+        assertEquals(threads, stats.getHits() + stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("Batch lookup serves hits locally and loads all misses in one call")
+    void testBatchLookup() {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        CachedCustomerServiceProxy proxy = new CachedCustomerServiceProxy(realService, 5000);
+        proxy.getCustomer("CUST001");
+        long dbCallsBefore = realService.getDbCallCount();
+
+        Map<String, Customer> customers =
+            proxy.getCustomers(Arrays.asList("CUST001", "CUST002", "CUST003", "UNKNOWN"));
+
+        assertEquals(3, customers.size(), "Unknown IDs are omitted from the batch result");
+        assertEquals("CUST002", customers.get("CUST002").getCustomerId());
+        assertEquals(1, realService.getDbCallCount() - dbCallsBefore, "All misses should share one round trip");
+        assertEquals(1, proxy.getCacheStats().getHits());
+
+        // Loaded customers are now cached for single lookups as well
+        proxy.getCustomer("CUST003");
+        assertEquals(2, proxy.getCacheStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Refresh-ahead serves the cached value while reloading in the background")
+    void testRefreshAhead() throws InterruptedException {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+        try {
+            CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+                .withCacheTimeoutMs(400)
+                .withRefreshAhead(0.5, refreshExecutor)
+                .build();
+
+            proxy.getCustomer("CUST001");
+            Thread.sleep(250); // past refresh threshold, still within TTL
+
+            long startTime = System.currentTimeMillis();
+            proxy.getCustomer("CUST001");
+            long duration = System.currentTimeMillis() - startTime;
+
+            Thread.sleep(200); // let the background reload finish
+
+            assertTrue(duration < 50, "Caller must not wait for the refresh");
+            assertEquals(2, realService.getDbCallCount(), "Entry should have been reloaded in the background");
+            assertEquals(1, proxy.getCacheStats().getRefreshes());
+            assertEquals(1, proxy.getCacheStats().getMisses());
+        } finally {
+            refreshExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Stale-while-revalidate blocks once the staleness bound is exceeded")
+    void testMaxStaleness() throws InterruptedException {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+        try {
+            CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+                .withCacheTimeoutMs(100)
+                .withRefreshAhead(1.0, refreshExecutor)
+                .withMaxStalenessMs(300)
+                .build();
+
+            proxy.getCustomer("CUST001");
+            Thread.sleep(150); // expired, but within staleness bound
+
+            long startTime = System.currentTimeMillis();
+            proxy.getCustomer("CUST001");
+            assertTrue(System.currentTimeMillis() - startTime < 50, "Stale value should be served immediately");
+            assertEquals(1, proxy.getCacheStats().getHits());
+
+            refreshExecutor.shutdown(); // no more refreshes: entry will age past the bound
+            Thread.sleep(600);
+
+            proxy.getCustomer("CUST001");
+            assertEquals(2, proxy.getCacheStats().getMisses(), "Beyond max staleness the caller must block");
+        } finally {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Timer wheel removes expired entries without a read")
+    void testProactiveExpiry() throws InterruptedException {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        ScheduledExecutorService cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+                .withCacheTimeoutMs(500)
+                .withExpiryCleanup(cleanupScheduler, 10)
+                .build();
+
+            proxy.getCustomer("CUST001");
+            proxy.getCustomerWithTariffHistory("CUST002");
+            assertEquals(2, proxy.getCacheStats().getSize());
+
+            Thread.sleep(800);
+
+            CachedCustomerServiceProxy.CacheStats stats = proxy.getCacheStats();
+            assertEquals(0, stats.getSize(), "Expired entries should be gone without being read");
+            assertEquals(2, stats.getExpirations());
+        } finally {
+            cleanupScheduler.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Timer wheel cascades long deadlines down to the exact expiry")
+    void testTimerWheelCascading() {
+        long origin = 1_000L;
+        TimerWheel<String> wheel = new TimerWheel<>(origin);
+        long deadline = origin + TimeUnit.SECONDS.toNanos(10);
+        TimerWheel.Node<String> node = new TimerWheel.Node<String>("CUST001", deadline) { };
+        wheel.schedule(node);
+
+        assertTrue(wheel.tryAdvance(origin + TimeUnit.SECONDS.toNanos(5)).isEmpty());
+        assertTrue(wheel.tryAdvance(origin + TimeUnit.MILLISECONDS.toNanos(9_990)).isEmpty());
+        assertEquals(1, wheel.size(), "Not-yet-due node must stay scheduled while cascading");
+
+        List<TimerWheel.Node<String>> expired = wheel.tryAdvance(origin + TimeUnit.MILLISECONDS.toNanos(10_005));
+        assertEquals(1, expired.size());
+        assertEquals("CUST001", expired.get(0).getKey());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Off-heap tier keeps customers evicted from the small on-heap L1")
+    void testOffHeapTier() {
+        DatabaseCustomerService realService = new DatabaseCustomerService();
+        CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+            .withCacheTimeoutMs(5000)
+            .withMaximumSize(1)
+            .withConcurrencyLevel(1)
+            .withOffHeapTier(64 * 1024)
+            .build();
+
+        Customer original = proxy.getCustomer("CUST001");
+        proxy.getCustomer("CUST002"); // evicts CUST001 from L1 into L2
+
+        Customer promoted = proxy.getCustomer("CUST001");
+
+        CachedCustomerServiceProxy.CacheStats stats = proxy.getCacheStats();
+        System.out.println("📊 Two-tier Stats: " + stats);
+        assertEquals(2, realService.getDbCallCount(), "CUST001 must come from the off-heap tier");
+        assertEquals(1, stats.getOffHeapHits());
+        assertEquals(original.getName(), promoted.getName());
+        assertEquals(original.getRegistrationDate(), promoted.getRegistrationDate());
+        assertEquals(original.getTariffHistory(), promoted.getTariffHistory());
+        assertTrue(stats.getOffHeapBytesUsed() > 0);
+    }
+
+    @Test
+    @DisplayName("Off-heap store reports fragmentation and evicts whole slabs")
+    void testOffHeapStoreFragmentationAndEviction() {
+        OffHeapCustomerStore store = new OffHeapCustomerStore(1024, 256);
+        Customer customer = new Customer("CUST001", "Max Mustermann", "max@example.com",
+            LocalDate.of(2020, 1, 15), Arrays.asList("Basic", "Premium"), "A");
+
+        store.put("basic_CUST001", customer, Long.MAX_VALUE);
+        assertEquals(0.0, store.getFragmentation());
+
+        store.put("basic_CUST001", customer, Long.MAX_VALUE); // old record becomes dead
+        assertTrue(store.getFragmentation() > 0.4);
+        assertEquals(1, store.size());
+
+        for (int i = 0; i < 50; i++) {
+            store.put("basic_BULK" + i, customer, Long.MAX_VALUE);
+        }
+        assertTrue(store.getBytesUsed() <= store.getCapacityBytes());
+        assertTrue(store.getEvictedEntries() > 0, "Full store must recycle its oldest slab");
+        assertEquals("Max Mustermann", store.get("basic_BULK49").getCustomer().getName());
+
+        // A new version too large for a slab must not leave the old version behind
+        Customer oversized = new Customer("CUST001", "Max Mustermann", "max@example.com",
+            LocalDate.of(2020, 1, 15), Collections.nCopies(100, "Premium"), "A");
+        assertFalse(store.put("basic_BULK49", oversized, Long.MAX_VALUE));
+        assertNull(store.get("basic_BULK49"));
+    }
+
+    @Test
+    @DisplayName("Write-behind: repeated updates are coalesced and flushed in one batch")
+    void testWriteBehindCoalescing() {
+        DatabaseCustomerService realService = new DatabaseCustomerService(10);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+                .withWriteBehind(100, 60_000, 1_000, flusher)
+                .build();
+
+            for (int i = 1; i <= 5; i++) {
+                proxy.updateCustomer(new Customer("CUST001", "Max v" + i, "max@example.com",
+                    LocalDate.of(2020, 1, 15), Arrays.asList("Basic"), "A"));
+            }
+            proxy.updateCustomer(new Customer("CUST002", "Anna v1", "anna@example.com",
+                LocalDate.of(2019, 3, 10), Arrays.asList("Premium"), "B"));
+
+            assertEquals(0, realService.getDbCallCount(), "Updates must not hit the database synchronously");
+            assertEquals("Max v5", proxy.getCustomer("CUST001").getName());
+            assertEquals(2, proxy.getCacheStats().getPendingWrites());
+            assertEquals(4, proxy.getCacheStats().getCoalescedWrites());
+
+            proxy.close();
+            assertEquals(1, realService.getDbCallCount(), "Six updates, two customers, one batch");
+            assertEquals(0, proxy.getCacheStats().getPendingWrites());
+            proxy.clearCache();
+            assertEquals("Max v5", proxy.getCustomer("CUST001").getName());
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Write-behind: a full dirty set makes the updating thread flush")
+    void testWriteBehindBackpressure() {
+        DatabaseCustomerService realService = new DatabaseCustomerService(1);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try {
+            WriteBehindQueue queue = new WriteBehindQueue(realService, 2, 2, 60_000, flusher);
+            // Shut the flusher down so only backpressure can write
+            flusher.shutdownNow();
+
+            for (int i = 0; i < 6; i++) {
+                queue.enqueue(new Customer("WB" + i, "Customer " + i, "wb" + i + "@example.com",
+                    LocalDate.of(2021, 1, 1), Arrays.asList("Basic"), "A"));
+                assertTrue(queue.getPendingCount() <= 2);
+            }
+
+            assertTrue(queue.getBackpressureFlushes() >= 2);
+            assertEquals(queue.getFlushBatches(), realService.getDbCallCount());
+            assertNotNull(queue.getPending("WB5"));
+            assertEquals(0, queue.shutdown(true));
+            assertEquals(6, queue.getFlushedWrites());
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Write-behind: pending updates are read back for every view, failed flushes are requeued")
+    void testWriteBehindReadYourWrites() {
+        AtomicBoolean accepting = new AtomicBoolean(false);
+        DatabaseCustomerService realService = new DatabaseCustomerService(1) {
+            @Override
+            public boolean updateCustomers(Collection<Customer> customers) {
+                return accepting.get() && super.updateCustomers(customers);
+            }
+        };
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+                .withWriteBehind(1, 60_000, 1, flusher)
+                .build();
+            // Shut the flusher down so only backpressure and explicit flushes write
+            flusher.shutdownNow();
+
+            proxy.updateCustomer(new Customer("CUST001", "Max v2", "max@example.com",
+                LocalDate.of(2020, 1, 15), Arrays.asList("Basic", "Premium"), "A"));
+            assertEquals("Max v2", proxy.getCustomerWithTariffHistory("CUST001").getName());
+            assertEquals(0, realService.getDbCallCount(), "Pending update must be served without a load");
+
+            // The dirty set is full: the backpressure flush is rejected by the backend
+            assertThrows(IllegalStateException.class, () -> proxy.updateCustomer(new Customer("CUST002",
+                "Anna v2", "anna@example.com", LocalDate.of(2019, 6, 10), Arrays.asList("Premium"), "B")));
+            assertEquals(1, proxy.getCacheStats().getPendingWrites(), "Rejected batch must be requeued");
+            assertEquals("Anna Schmidt", proxy.getCustomer("CUST002").getName(),
+                "An update that was not queued must not be cached");
+
+            accepting.set(true);
+            proxy.flush();
+            assertEquals(0, proxy.getCacheStats().getPendingWrites());
+            assertEquals("Max v2", realService.getCustomer("CUST001").getName());
+            proxy.close();
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Write-behind: loads racing with an update never publish the old database row")
+    void testWriteBehindUpdateDuringLoad() throws Exception {
+        CountDownLatch loadsStarted = new CountDownLatch(2);
+        CountDownLatch releaseLoads = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        List<Future<?>> reads = new ArrayList<>();
+        CachedCustomerServiceProxy[] proxyRef = new CachedCustomerServiceProxy[1];
+        DatabaseCustomerService realService = new DatabaseCustomerService(1) {
+            @Override
+            public Map<String, Customer> getCustomers(Collection<String> customerIds) {
+                return super.getCustomers(awaitRelease(customerIds));
+            }
+
+            @Override
+            public Customer getCustomerWithTariffHistory(String customerId) {
+                return super.getCustomerWithTariffHistory(awaitRelease(customerId));
+            }
+
+            @Override
+            public boolean updateCustomers(Collection<Customer> customers) {
+                // Backpressure flush in the middle of updateCustomer: a batch miss and a history miss start loading
+                reads.add(readers.submit(() -> proxyRef[0].getCustomers(Arrays.asList("CUST001", "CUST002"))));
+                reads.add(readers.submit(() -> proxyRef[0].getCustomerWithTariffHistory("CUST001")));
+                try {
+                    assertTrue(loadsStarted.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.updateCustomers(customers);
+            }
+
+            private <T> T awaitRelease(T request) {
+                loadsStarted.countDown();
+                try {
+                    releaseLoads.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return request;
+            }
+        };
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CachedCustomerServiceProxy proxy = CachedCustomerServiceProxy.builder(realService)
+                .withWriteBehind(1, 60_000, 1, flusher)
+                .build();
+            proxyRef[0] = proxy;
+            // Shut the flusher down so only backpressure writes
+            flusher.shutdownNow();
+
+            proxy.updateCustomer(new Customer("CUST002", "Anna v2", "anna@example.com",
+                LocalDate.of(2019, 3, 10), Arrays.asList("Premium"), "B"));
+            proxy.updateCustomer(new Customer("CUST001", "Max v2", "max@example.com",
+                LocalDate.of(2020, 1, 15), Arrays.asList("Basic", "Premium"), "A"));
+            releaseLoads.countDown();
+            for (Future<?> read : reads) {
+                read.get(5, TimeUnit.SECONDS);
+            }
+
+            assertEquals("Max v2", proxy.getCustomer("CUST001").getName(), "Batch load must not overwrite the update");
+            assertEquals("Max v2", proxy.getCustomerWithTariffHistory("CUST001").getName(),
+                "History load must not overwrite the update");
+            assertEquals("Max v2", proxy.getCustomers(Arrays.asList("CUST001")).get("CUST001").getName());
+            proxy.close();
+        } finally {
+            readers.shutdownNow();
+            flusher.shutdownNow();
+        }
+    }
+}
@@ -4,7 +4,20 @@ import com.telekom.training.day2.paymentbridge.fixed.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -111,6 +124,70 @@ class PaymentBridgeTest {
         assertEquals("Stripe", stripeRefund.getProviderName());
     }
 
+    @Test
+    @DisplayName("Audit events are written off-thread to a rolling file with masked tokens")
+    void testAuditLogRollingFile() throws IOException {
+        Path dir = Files.createTempDirectory("payment-audit");
+        Path file = dir.resolve("audit.log");
+        try (PaymentAuditLog auditLog = new PaymentAuditLog(file, 256, 2_000, 2)) {
+            PaymentProcessor processor = new LoggingPaymentProcessor(
+                new SimulatedPaymentImplementation("Stripe", 0), auditLog);
+            PaymentResult last = null;
+            for (int i = 0; i < 40; i++) {
+                last = processor.processPayment("tok_4242424242424242", new BigDecimal("19.99"), "EUR");
+                processor.refundPayment(last.getTransactionId(), new BigDecimal("19.99"));
+            }
+            auditLog.flush();
+
+            assertEquals(160, auditLog.getRecordedEvents());
+            assertEquals(0, auditLog.getDroppedEvents());
+            assertEquals(auditLog.getRecordedEvents(), auditLog.getWrittenEvents());
+            assertTrue(Files.exists(dir.resolve("audit.log.1")));
+            assertTrue(Files.exists(dir.resolve("audit.log.2")));
+            assertFalse(Files.exists(dir.resolve("audit.log.3")), "Only two backups are kept");
+            assertTrue(Files.size(dir.resolve("audit.log.1")) <= 2_000);
+
+            String latest = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            String rolled = new String(Files.readAllBytes(dir.resolve("audit.log.1")), StandardCharsets.UTF_8);
+            assertTrue(latest.endsWith("\n") && latest.contains("REFUND_RESULT"));
+            assertTrue((rolled + latest).contains("REFUND_REQUEST id=" + (auditLog.getRecordedEvents() - 2)
+                + " provider=Stripe amount=19.99 transactionId=" + last.getTransactionId()));
+            assertTrue(rolled.contains("token=tok_***4242"));
+            assertFalse(rolled.contains("4242424242424242"), "Tokens must be masked");
+        }
+    }
+
+    @Test
+    @DisplayName("Console audit log writes masked events to System.out")
+    void testConsoleAuditLog() {
+        PrintStream console = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try (PaymentAuditLog auditLog = PaymentAuditLog.console()) {
+            PaymentProcessor processor = new LoggingPaymentProcessor(
+                new SimulatedPaymentImplementation("Stripe", 0), auditLog);
+            processor.processPayment("tok_4242424242424242", new BigDecimal("19.99"), "EUR");
+            auditLog.flush();
+
+            assertNull(auditLog.getFile());
+            assertEquals(2, auditLog.getWrittenEvents());
+
+            // An event that cannot be formatted costs one line, the writer keeps draining
+            auditLog.recordResult(PaymentAuditLog.EventType.PAYMENT_RESULT, 0, "Stripe", null, 0);
+            processor.processPayment("tok_4242424242424242", new BigDecimal("5.00"), "EUR");
+            auditLog.flush();
+            assertEquals(1, auditLog.getWriteFailures());
+            assertEquals(5, auditLog.getWrittenEvents());
+        } finally {
+            System.setOut(console);
+        }
+        String output = captured.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("📝 AUDIT ") && output.contains("PAYMENT_RESULT"));
+        assertTrue(output.contains("token=tok_***4242"));
+        assertTrue(output.contains("amount=5.00"), "Events after a failed one must still be written");
+        assertFalse(output.contains("4242424242424242"), "Tokens must be masked");
+    }
+
     @Test
     @DisplayName("Logging processor adds behavior without changing implementation")
     void testLoggingProcessorBehavior() {
@@ -180,4 +257,290 @@ class PaymentBridgeTest {
         
         // No changes needed to existing code - that's the power of Bridge pattern!
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Async processors do not block the caller and run payments in parallel")
+    void testAsyncPayments() {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(10, 100);
+        try {
+            PaymentProcessor simple = new SimplePaymentProcessor(new StripeImplementation(), ioExecutor);
+            PaymentProcessor logging = new LoggingPaymentProcessor(new PaypalImplementation(), ioExecutor);
+
+            long submitStart = System.currentTimeMillis();
+            List<CompletableFuture<PaymentResult>> payments = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                payments.add(simple.processPaymentAsync("stripe_token_" + i, new BigDecimal("19.99"), "EUR"));
+                payments.add(logging.processPaymentAsync("paypal_token_" + i, new BigDecimal("19.99"), "EUR"));
+            }
+            long submitTime = System.currentTimeMillis() - submitStart;
+
+            CompletableFuture.allOf(payments.toArray(new CompletableFuture[0])).join();
+            long totalTime = System.currentTimeMillis() - submitStart;
+
+            for (CompletableFuture<PaymentResult> payment : payments) {
+                assertTrue(payment.join().isSuccess());
+            }
+            assertTrue(submitTime < 150, "Submitting must not wait for the providers: " + submitTime + "ms");
+            // Sequentially 5 x 150ms + 5 x 200ms = 1750ms
+            assertTrue(totalTime < 1000, "Payments should overlap: " + totalTime + "ms");
+
+            PaymentResult refund = logging.refundPaymentAsync("PP_123", new BigDecimal("19.99")).join();
+            assertTrue(refund.isSuccess());
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A saturated I/O executor yields a failed result instead of blocking")
+    void testAsyncPaymentRejected() {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(1, 1);
+        try {
+            PaymentProcessor processor = new SimplePaymentProcessor(new StripeImplementation(), ioExecutor);
+            CompletableFuture<PaymentResult> running = processor.processPaymentAsync("t1", BigDecimal.TEN, "EUR");
+            CompletableFuture<PaymentResult> queued = processor.processPaymentAsync("t2", BigDecimal.TEN, "EUR");
+            CompletableFuture<PaymentResult> rejected = processor.processPaymentAsync("t3", BigDecimal.TEN, "EUR");
+
+            assertTrue(rejected.isDone());
+            assertFalse(rejected.join().isSuccess());
+            assertEquals("Stripe", rejected.join().getProviderName());
+            assertTrue(running.join().isSuccess());
+            assertTrue(queued.join().isSuccess());
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Batch pipeline groups charges per provider and streams results")
+    void testBatchPipeline() {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(16, 100);
+        try {
+            BatchPaymentPipeline pipeline = BatchPaymentPipeline.builder()
+                .withProvider(new SimplePaymentProcessor(new StripeImplementation(), ioExecutor), 5, 0)
+                .withProvider(new SimplePaymentProcessor(new PaypalImplementation(), ioExecutor), 5, 0)
+                .build();
+
+            List<Charge> charges = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                charges.add(new Charge("Stripe", "stripe_token_" + i, new BigDecimal("9.99"), "EUR"));
+                charges.add(new Charge("PayPal", "paypal_token_" + i, new BigDecimal("9.99"), "EUR"));
+            }
+            charges.add(new Charge("Klarna", "klarna_token", new BigDecimal("9.99"), "EUR"));
+
+            List<BatchPaymentPipeline.ChargeResult> streamed = Collections.synchronizedList(new ArrayList<>());
+            long start = System.currentTimeMillis();
+            BatchPaymentPipeline.BatchReport report = pipeline.submit(charges, streamed::add).join();
+            long duration = System.currentTimeMillis() - start;
+
+            assertEquals(21, streamed.size());
+            assertEquals(20, report.getSucceeded());
+            assertEquals(1, report.getFailed());
+            assertEquals(1, report.getUnroutable());
+            assertEquals(10, report.getProvider("Stripe").getSucceeded());
+            assertEquals(10, report.getProvider("PayPal").getLatency().getCount());
+            assertTrue(report.getProvider("Stripe").getLatency().getPercentileMillis(50) >= 150);
+            // Sequentially 10 x 150ms + 10 x 200ms = 3500ms; lanes run 5 wide and in parallel
+            assertTrue(duration < 1500, "Batch should run concurrently: " + duration + "ms");
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Batch pipeline respects per-provider rate limit and concurrency")
+    void testBatchPipelineRateLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        PaymentImplementation counting = new PaymentImplementation() {
+            @Override
+            public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(30);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                return new PaymentResult("C_" + token, true, "ok", "Counting");
+            }
+
+            @Override
+            public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+                return new PaymentResult("R_" + transactionId, true, "ok", "Counting");
+            }
+
+            @Override
+            public String getProviderName() {
+                return "Counting";
+            }
+        };
+
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(8, 100);
+        try {
+            BatchPaymentPipeline pipeline = BatchPaymentPipeline.builder()
+                .withProvider(new SimplePaymentProcessor(counting, ioExecutor), 2, 50)
+                .build();
+            List<Charge> charges = new ArrayList<>();
+            for (int i = 0; i < 11; i++) {
+                charges.add(new Charge("Counting", "t" + i, BigDecimal.ONE, "EUR"));
+            }
+
+            BatchPaymentPipeline.BatchReport report = pipeline.submit(charges, result -> { }).join();
+
+            assertEquals(11, report.getSucceeded());
+            assertTrue(maxInFlight.get() <= 2, "Concurrency limit exceeded: " + maxInFlight.get());
+            // 50 charges/s: 11 charges need at least 10 intervals of 20ms
+            assertTrue(report.getElapsedNanos() >= 200_000_000L, "Rate limit not applied");
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Batch pipeline waits for a saturated executor instead of failing charges")
+    void testBatchPipelineBackpressure() {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(2, 2);
+        try (PaymentAuditLog auditLog = PaymentAuditLog.console()) {
+            BatchPaymentPipeline pipeline = BatchPaymentPipeline.builder()
+                .withProvider(new LoggingPaymentProcessor(new SimulatedPaymentImplementation("Stripe", 10), ioExecutor,
+                    auditLog), 20, 0)
+                .build();
+            List<Charge> charges = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                charges.add(new Charge("Stripe", "stripe_token_" + i, BigDecimal.ONE, "EUR"));
+            }
+
+            BatchPaymentPipeline.BatchReport report = pipeline.submit(charges, result -> { }).join();
+
+            assertEquals(40, report.getSucceeded());
+            assertEquals(0, report.getFailed());
+            assertTrue(report.getProvider("Stripe").getRetried() > 0, "Lane should have hit the executor limit");
+            auditLog.flush();
+            assertEquals(80, auditLog.getRecordedEvents(), "Rejected attempts must not be audited");
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Routing moves traffic away from a provider that slows down")
+    void testRoutingPrefersHealthyProvider() {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(8, 100);
+        try {
+            SimulatedPaymentImplementation stripe = new SimulatedPaymentImplementation("Stripe", 5);
+            SimulatedPaymentImplementation paypal = new SimulatedPaymentImplementation("PayPal", 5);
+            RoutingPaymentImplementation routing = RoutingPaymentImplementation.builder()
+                .withProvider(stripe, ioExecutor)
+                .withProvider(paypal, ioExecutor)
+                .withWindowSize(20)
+                .build();
+
+            for (int i = 0; i < 40; i++) {
+                assertTrue(routing.processPayment("token_" + i, BigDecimal.TEN, "EUR").isSuccess());
+            }
+            long stripeBefore = stripe.getPaymentCount();
+            stripe.setLatencyMs(60);
+            PaymentResult last = null;
+            for (int i = 0; i < 60; i++) {
+                last = routing.processPayment("token_" + i, BigDecimal.TEN, "EUR");
+            }
+
+            long stripeAfter = stripe.getPaymentCount() - stripeBefore;
+            assertTrue(stripeAfter <= 10, "Slow provider still got " + stripeAfter + " of 60 payments");
+            assertTrue(routing.getP95Millis("Stripe") > routing.getP95Millis("PayPal"));
+            assertEquals("Routing(Stripe,PayPal)", routing.getProviderName());
+
+            // Refunds go to the provider that owns the transaction
+            PaymentResult refund = routing.refundPayment(last.getTransactionId(), BigDecimal.TEN);
+            assertTrue(refund.isSuccess());
+            assertEquals(last.getProviderName(), refund.getProviderName());
+            assertFalse(routing.refundPayment("UNKNOWN_1", BigDecimal.TEN).isSuccess());
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Hedged payments cut the latency tail without booking a second charge")
+    void testHedgedPayments() throws InterruptedException {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(16, 100);
+        try {
+            SimulatedPaymentImplementation stripe = new SimulatedPaymentImplementation("Stripe", 5);
+            SimulatedPaymentImplementation paypal = new SimulatedPaymentImplementation("PayPal", 5);
+            // Every 25th call of each provider stalls for 300ms
+            stripe.setSlowCalls(25, 300);
+            paypal.setSlowCalls(25, 300);
+            RoutingPaymentImplementation routing = RoutingPaymentImplementation.builder()
+                .withProvider(stripe, ioExecutor)
+                .withProvider(paypal, ioExecutor)
+                .withHedging(true)
+                .build();
+
+            // Warm up until both providers have enough samples for a p95
+            for (int i = 0; i < 60; i++) {
+                routing.processPayment("warmup_" + i, BigDecimal.TEN, "EUR");
+            }
+            long[] latencies = new long[100];
+            for (int i = 0; i < latencies.length; i++) {
+                long start = System.nanoTime();
+                assertTrue(routing.processPayment("token_" + i, BigDecimal.TEN, "EUR").isSuccess());
+                latencies[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(latencies);
+            long p99 = latencies[98];
+
+            assertTrue(p99 < 150, "Hedging should hide the 300ms stalls, p99 was " + p99 + "ms");
+            assertTrue(routing.getHedgedRequests() > 0);
+            assertTrue(routing.getHedgeWins() > 0);
+
+            // Losing attempts finish late and are answered with the charge the winner booked
+            Thread.sleep(400);
+            assertEquals(160, stripe.getPaymentCount() + paypal.getPaymentCount(), "One charge per payment");
+            assertTrue(stripe.getDeduplicatedCount() + paypal.getDeduplicatedCount() > 0);
+            assertEquals(0, stripe.getRefundCount() + paypal.getRefundCount());
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Providers without idempotency keys are never hedged")
+    void testNoHedgingWithoutIdempotencyKeys() {
+        ExecutorService ioExecutor = AsyncPaymentAdapter.boundedIoExecutor(16, 100);
+        try {
+            SimulatedPaymentImplementation simulated = new SimulatedPaymentImplementation("Stripe", 5);
+            simulated.setSlowCalls(10, 100);
+            // Plain PaymentImplementation view of the provider, without the keyed charge
+            PaymentImplementation plain = new PaymentImplementation() {
+                @Override
+                public PaymentResult processPayment(String token, BigDecimal amount, String currency) {
+                    return simulated.processPayment(token, amount, currency);
+                }
+
+                @Override
+                public PaymentResult refundPayment(String transactionId, BigDecimal amount) {
+                    return simulated.refundPayment(transactionId, amount);
+                }
+
+                @Override
+                public String getProviderName() {
+                    return simulated.getProviderName();
+                }
+            };
+            RoutingPaymentImplementation routing = RoutingPaymentImplementation.builder()
+                .withProvider(plain, ioExecutor)
+                .withHedging(true)
+                .build();
+
+            for (int i = 0; i < 60; i++) {
+                assertTrue(routing.processPayment("token_" + i, BigDecimal.TEN, "EUR").isSuccess());
+            }
+
+            assertEquals(0, routing.getHedgedRequests());
+            assertEquals(60, simulated.getPaymentCount());
+        } finally {
+            ioExecutor.shutdownNow();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -124,4 +125,89 @@ class TariffHierarchyTest {
         // mainBundle: 65 + 25 - 10 = 80
         assertEquals(new BigDecimal("80.00"), mainBundle.getPrice());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Cached bundle price follows edits deep in the tree")
+    void testCachedPriceInvalidation() {
+        TariffBundle inner = new TariffBundle("Innen", new BigDecimal("1.00"));
+        inner.add(new SingleTariff("Mobile", new BigDecimal("20.00"), "Mobilfunk"));
+        TariffBundle middle = new TariffBundle("Mitte", new BigDecimal("2.00"));
+        middle.add(inner);
+        TariffBundle root = new TariffBundle("Wurzel", new BigDecimal("3.00"));
+        root.add(middle);
+        TariffComponent tv = new SingleTariff("TV", new BigDecimal("10.00"), "TV");
+        root.add(tv);
+
+        // 20 - 1 - 2 + 10 - 3 = 24
+        BigDecimal first = root.getPrice();
+        assertEquals(new BigDecimal("24.00"), first);
+        assertSame(first, root.getPrice(), "Repeated calls must be served from the cache");
+
+        // Edit at the bottom invalidates the whole ancestor path
+        TariffComponent internet = new SingleTariff("DSL", new BigDecimal("30.00"), "Internet");
+        inner.add(internet);
+        assertEquals(new BigDecimal("54.00"), root.getPrice());
+        assertSame(middle, inner.getParent());
+        assertSame(root, middle.getParent());
+
+        inner.remove(internet);
+        assertNull(internet.getParent());
+        assertEquals(new BigDecimal("24.00"), root.getPrice());
+
+        // Sibling subtree keeps its cached price
+        BigDecimal middlePrice = middle.getPrice();
+        root.remove(tv);
+        assertSame(middlePrice, middle.getPrice());
+        assertEquals(new BigDecimal("14.00"), root.getPrice());
+    }
+
+    @Test
+    @DisplayName("A component belongs to exactly one bundle")
+    void testSingleParent() {
+        TariffBundle first = new TariffBundle("Erstes", BigDecimal.ZERO);
+        TariffBundle second = new TariffBundle("Zweites", BigDecimal.ZERO);
+        TariffComponent mobile = new SingleTariff("Mobile", new BigDecimal("20.00"), "Mobilfunk");
+        first.add(mobile);
+
+        assertThrows(IllegalArgumentException.class, () -> second.add(mobile));
+        second.add(first);
+        assertThrows(IllegalArgumentException.class, () -> first.add(second), "Cycles are rejected");
+    }
+
+    @Test
+    @DisplayName("Cent and BigDecimal prices agree for random bundle trees")
+    void testCentPricingMatchesBigDecimal() {
+        Random random = new Random(7);
+        for (int run = 0; run < 200; run++) {
+            TariffComponent tree = randomTree(random, 1 + random.nextInt(5), "T" + run);
+            BigDecimal expected = referencePrice(tree);
+
+            assertEquals(0, expected.compareTo(tree.getPrice()), "Run " + run);
+            assertEquals(expected.movePointRight(2).longValueExact(), tree.getPriceCents(), "Run " + run);
+        }
+    }
+
+    private static TariffComponent randomTree(Random random, int depth, String name) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return new SingleTariff(name, BigDecimal.valueOf(random.nextInt(10_000), 2), "Random");
+        }
+        TariffBundle bundle = new TariffBundle(name, BigDecimal.valueOf(random.nextInt(500), 2));
+        int children = 1 + random.nextInt(4);
+        for (int i = 0; i < children; i++) {
+            bundle.add(randomTree(random, depth - 1, name + "." + i));
+        }
+        return bundle;
+    }
+
+    // Plain BigDecimal aggregation, independent of the cent fast path
+    private static BigDecimal referencePrice(TariffComponent component) {
+        if (component instanceof SingleTariff) {
+            return component.getPrice();
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (TariffComponent child : component.getComponents()) {
+            total = total.add(referencePrice(child));
+        }
+        return total.subtract(((TariffBundle) component).getDiscount());
+    }
+}
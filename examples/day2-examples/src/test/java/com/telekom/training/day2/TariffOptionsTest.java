@@ -6,6 +6,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -98,4 +100,144 @@ class TariffOptionsTest {
         // This demonstrates the scalability of Decorator pattern
         assertTrue(true, "Decorator pattern scales linearly, inheritance exponentially");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Cent and BigDecimal prices agree for random decorator chains")
+    void testCentPricingMatchesBigDecimal() {
+        Random random = new Random(42);
+        BigDecimal[] optionCosts = {new BigDecimal("15.00"), new BigDecimal("8.50"), new BigDecimal("4.99")};
+
+        for (int run = 0; run < 1_000; run++) {
+            BigDecimal basePrice = BigDecimal.valueOf(random.nextInt(20_000), 2);
+            Tariff tariff = new BasicTariff("Random", basePrice, 100, 100, 1024);
+            BigDecimal expected = basePrice;
+
+            int depth = random.nextInt(50);
+            for (int i = 0; i < depth; i++) {
+                int option = random.nextInt(3);
+                switch (option) {
+                    case 0: tariff = new FlatrateDecorator(tariff); break;
+                    case 1: tariff = new RoamingDecorator(tariff); break;
+                    default: tariff = new InsuranceDecorator(tariff); break;
+                }
+                expected = expected.add(optionCosts[option]);
+            }
+
+            assertEquals(0, expected.compareTo(tariff.getPrice()), "Run " + run);
+            assertEquals(expected.movePointRight(2).longValueExact(), tariff.getPriceCents(), "Run " + run);
+        }
+    }
+
+    @Test
+    @DisplayName("Prices with fractions of a cent are rejected")
+    void testSubCentPriceRejected() {
+        assertThrows(ArithmeticException.class,
+            () -> new BasicTariff("Krumm", new BigDecimal("9.999"), 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Frozen tariff matches its decorator chain and thaws back")
+    void testFreezeAndThaw() {
+        Random random = new Random(11);
+        TariffOption[] options = TariffOption.values();
+
+        for (int run = 0; run < 200; run++) {
+            Tariff chain = new BasicTariff("Random", BigDecimal.valueOf(random.nextInt(20_000), 2), 100, 50, 2048);
+            int depth = random.nextInt(20);
+            for (int i = 0; i < depth; i++) {
+                chain = options[random.nextInt(options.length)].decorate(chain);
+            }
+
+            FrozenTariff frozen = FrozenTariff.freeze(chain);
+            assertSameTariff(chain, frozen);
+            assertEquals(depth, frozen.getOptions().size());
+            assertSame(frozen, FrozenTariff.freeze(frozen));
+
+            Tariff thawed = frozen.thaw();
+            assertSameTariff(chain, thawed);
+            assertEquals(frozen.getOptions(), FrozenTariff.freeze(thawed).getOptions());
+        }
+    }
+
+    @Test
+    @DisplayName("Options added on top of a frozen tariff are merged when freezing again")
+    void testFreezeNestedFrozenTariff() {
+        Tariff base = new BasicTariff("Premium", new BigDecimal("29.99"), 500, 100, 2048);
+        FrozenTariff withFlatrate = FrozenTariff.freeze(new FlatrateDecorator(base));
+        Tariff extended = new RoamingDecorator(withFlatrate);
+
+        FrozenTariff refrozen = FrozenTariff.freeze(extended);
+        assertSame(base, refrozen.getBase());
+        assertEquals(Arrays.asList(TariffOption.FLATRATE, TariffOption.ROAMING), refrozen.getOptions());
+        assertEquals(new BigDecimal("53.49"), refrozen.getPrice());
+        assertEquals(extended.getDescription(), refrozen.getDescription());
+    }
+
+    private static void assertSameTariff(Tariff expected, Tariff actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getPriceCents(), actual.getPriceCents());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getIncludedMinutes(), actual.getIncludedMinutes());
+        assertEquals(expected.getIncludedSms(), actual.getIncludedSms());
+        assertEquals(expected.getIncludedDataMB(), actual.getIncludedDataMB());
+    }
+
+    @Test
+    @DisplayName("Catalog shares one instance per base tariff and option sequence")
+    void testTariffCatalogSharing() {
+        TariffCatalog catalog = new TariffCatalog();
+
+        // Two customers, each with their own object graph, same options booked in the same order
+        Tariff first = new RoamingDecorator(new FlatrateDecorator(
+            new BasicTariff("Premium", new BigDecimal("29.99"), 500, 100, 2048)));
+        Tariff second = new RoamingDecorator(new FlatrateDecorator(
+            new BasicTariff("Premium", new BigDecimal("29.99"), 500, 100, 2048)));
+
+        Tariff sharedFirst = catalog.intern(first);
+        Tariff sharedSecond = catalog.intern(second);
+        assertSame(sharedFirst, sharedSecond);
+        assertEquals(new BigDecimal("53.49"), sharedFirst.getPrice());
+        assertEquals(Integer.MAX_VALUE, sharedFirst.getIncludedMinutes());
+        assertEquals(first.getDescription(), sharedFirst.getDescription());
+        assertSame(sharedFirst, catalog.intern(sharedFirst));
+        assertSame(sharedFirst, catalog.get((BasicTariff) ((FrozenTariff) sharedFirst).getBase(),
+            TariffOption.FLATRATE, TariffOption.ROAMING));
+
+        // Booked in the other order: same price, but its own description and instance
+        Tariff reversed = new FlatrateDecorator(new RoamingDecorator(
+            new BasicTariff("Premium", new BigDecimal("29.99"), 500, 100, 2048)));
+        Tariff sharedReversed = catalog.intern(reversed);
+        assertNotSame(sharedFirst, sharedReversed);
+        assertEquals(reversed.getDescription(), sharedReversed.getDescription());
+        assertEquals(sharedFirst.getPrice(), sharedReversed.getPrice());
+
+        Tariff insured = catalog.intern(new InsuranceDecorator(
+            new BasicTariff("Premium", new BigDecimal("29.99"), 500, 100, 2048)));
+        assertNotSame(sharedFirst, insured);
+        assertSame(((FrozenTariff) sharedFirst).getBase(), ((FrozenTariff) insured).getBase(),
+            "All variants share the canonical base tariff");
+
+        TariffCatalog.CatalogStats stats = catalog.getStats();
+        assertEquals(1, stats.getBaseTariffs());
+        assertEquals(3, stats.getSharedInstances());
+        assertEquals(0, stats.getUnshareable());
+        // first: 2 decorators (its base became canonical), second and reversed: 2 decorators + base each,
+        // insured: 1 + base
+        assertEquals(10, stats.getObjectsSaved());
+        assertTrue(stats.getEstimatedBytesSaved() > 0);
+    }
+
+    @Test
+    @DisplayName("Catalog does not share stacks that book an option twice")
+    void testTariffCatalogUnshareable() {
+        TariffCatalog catalog = new TariffCatalog();
+        Tariff doubleInsured = new InsuranceDecorator(new InsuranceDecorator(
+            new BasicTariff("Premium", new BigDecimal("29.99"), 500, 100, 2048)));
+
+        Tariff result = catalog.intern(doubleInsured);
+        assertEquals(new BigDecimal("39.97"), result.getPrice());
+        assertNotSame(result, catalog.intern(doubleInsured));
+        assertEquals(2, catalog.getStats().getUnshareable());
+    }
+}
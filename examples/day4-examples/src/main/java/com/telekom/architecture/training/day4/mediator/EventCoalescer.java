@@ -0,0 +1,166 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEvent;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEventType;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional coalescing stage in front of the ingestion queue, for flapping devices.
+ *
+ * Events of the coalesced types are keyed by (source device, event type). The first event of a
+ * key opens a window; further events with the same key within the window replace the pending
+ * one. When the window ends, only the latest event is passed on. Other event types go straight
+ * to the queue.
+ *
+ * A link flapping hundreds of times per second thus costs one dispatch per window instead of
+ * one fan-out to all devices per flap.
+ */
+public class EventCoalescer {
+
+    // How long close() waits for window flushes that are blocked on a full downstream queue
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final EventQueue downstream;
+    private final long windowNanos;
+    private final Set<NetworkEventType> coalescedTypes;
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    public EventCoalescer(EventQueue downstream, Duration window, NetworkEventType... coalescedTypes) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Coalescing window must be positive: " + window);
+        }
+        this.downstream = downstream;
+        this.windowNanos = window.toNanos();
+        this.coalescedTypes = coalescedTypes.length == 0
+            ? EnumSet.noneOf(NetworkEventType.class) : EnumSet.of(coalescedTypes[0], coalescedTypes);
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "orchestrator-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // On close, windows not yet due are flushed by close() itself instead of waiting for them
+        timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Passes the event on now, or holds it until its coalescing window ends.
+     */
+    public void submit(NetworkEvent event) throws InterruptedException {
+        received.incrementAndGet();
+        if (!coalescedTypes.contains(event.getEventType())) {
+            forward(event);
+            return;
+        }
+        Key key = new Key(event.getSourceDeviceId(), event.getEventType());
+        boolean[] opened = {false};
+        pending.compute(key, (k, current) -> {
+            if (current == null) {
+                opened[0] = true;
+                return new Pending(event);
+            }
+            current.latest = event;
+            collapsed.incrementAndGet();
+            return current;
+        });
+        if (opened[0]) {
+            try {
+                timer.schedule(() -> flush(key), windowNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                flush(key); // closed meanwhile - the downstream queue decides
+            }
+        }
+    }
+
+    /**
+     * Passes all pending events on immediately and stops the window timer. Flushes already running
+     * may be blocked on a full downstream queue; they are awaited, not interrupted.
+     */
+    public void close() {
+        timer.shutdown();
+        try {
+            if (!timer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                timer.shutdownNow(); // stuck flushes give up, their events are counted as lost
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Key key : pending.keySet()) {
+            flush(key);
+        }
+    }
+
+    private void flush(Key key) {
+        Pending window = pending.remove(key);
+        if (window == null) {
+            return;
+        }
+        try {
+            forward(window.latest);
+        } catch (InterruptedException e) {
+            lost.incrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void forward(NetworkEvent event) throws InterruptedException {
+        if (downstream.offer(event)) {
+            forwarded.incrementAndGet();
+        }
+    }
+
+    public long getReceivedCount() { return received.get(); }
+    public long getCollapsedCount() { return collapsed.get(); }
+    public long getForwardedCount() { return forwarded.get(); }
+    public int getPendingCount() { return pending.size(); }
+    /** Window events that could not be passed on because the flush was interrupted. */
+    public long getLostCount() { return lost.get(); }
+
+    // Latest event of one open window; only replaced inside ConcurrentHashMap.compute
+    private static final class Pending {
+        private NetworkEvent latest;
+
+        Pending(NetworkEvent latest) {
+            this.latest = latest;
+        }
+    }
+
+    private static final class Key {
+        private final String sourceDeviceId;
+        private final NetworkEventType eventType;
+
+        Key(String sourceDeviceId, NetworkEventType eventType) {
+            this.sourceDeviceId = sourceDeviceId;
+            this.eventType = eventType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return eventType == key.eventType && Objects.equals(sourceDeviceId, key.sourceDeviceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(sourceDeviceId) + eventType.hashCode();
+        }
+    }
+}
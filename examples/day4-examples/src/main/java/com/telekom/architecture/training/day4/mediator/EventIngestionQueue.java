@@ -0,0 +1,223 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ingestion stage between notifyEvent and the orchestrator workers.
+ *
+ * Many producers (devices, alarm feeds) offer events, one dispatcher takes them. Events sit
+ * in a preallocated ring buffer, so an alarm storm can never queue more than the capacity.
+ * What happens when the ring is full is decided by the OverloadPolicy.
+ *
+ * The ring is guarded by one lock: DROP_OLDEST and DROP_LOWEST_PRIORITY modify slots that
+ * other producers or the consumer could be using, which a CAS-only ring cannot do safely.
+ *
+ * Metrics: current depth, high water mark, and counters per kind of loss.
+ */
+public class EventIngestionQueue implements EventQueue {
+
+    public enum OverloadPolicy {
+        /** Producer waits until there is space */
+        BLOCK,
+        /** Oldest queued event is dropped to make room */
+        DROP_OLDEST,
+        /** Least important event (highest priority number) is dropped, possibly the new one */
+        DROP_LOWEST_PRIORITY,
+        /** New event is rejected */
+        REJECT
+    }
+
+    // Priorities 1 (critical) to 5 (info); values outside are clamped for overload decisions
+    private static final int MIN_PRIORITY = 1;
+    private static final int MAX_PRIORITY = 5;
+
+    private final NetworkEvent[] ring;
+    private final OverloadPolicy policy;
+    // Told about queued events removed by an overload policy, called under the queue lock
+    private final Consumer<NetworkEvent> dropListener;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // Queued events per priority, to find the least important one without scanning
+    private final int[] queuedByPriority = new int[MAX_PRIORITY + 1];
+    private int head;
+    private int count;
+    private boolean closed;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong droppedOldest = new AtomicLong();
+    private final AtomicLong droppedLowestPriority = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int depth;
+    private volatile int highWaterMark;
+
+    public EventIngestionQueue(int capacity, OverloadPolicy policy) {
+        this(capacity, policy, event -> { });
+    }
+
+    public EventIngestionQueue(int capacity, OverloadPolicy policy, Consumer<NetworkEvent> dropListener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.ring = new NetworkEvent[capacity];
+        this.policy = policy;
+        this.dropListener = dropListener;
+    }
+
+    /**
+     * Enqueues the event according to the overload policy.
+     * Returns false if this event was not queued (rejected, dropped itself, or queue closed).
+     */
+    @Override
+    public boolean offer(NetworkEvent event) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (count == ring.length && !closed) {
+                switch (policy) {
+                    case BLOCK:
+                        while (count == ring.length && !closed) {
+                            notFull.await();
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        dropListener.accept(removeAt(0));
+                        droppedOldest.incrementAndGet();
+                        break;
+                    case DROP_LOWEST_PRIORITY:
+                        if (!dropLessImportantThan(event)) {
+                            droppedLowestPriority.incrementAndGet();
+                            return false;
+                        }
+                        break;
+                    case REJECT:
+                    default:
+                        rejected.incrementAndGet();
+                        return false;
+                }
+            }
+            if (closed) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            ring[(head + count) % ring.length] = event;
+            count++;
+            queuedByPriority[priorityOf(event)]++;
+            accepted.incrementAndGet();
+            updateDepth();
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the oldest event, waiting if necessary. Returns null once the queue is closed and drained.
+     */
+    @Override
+    public NetworkEvent take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (closed) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+            return removeAt(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the oldest event without waiting, null if the queue is empty.
+     */
+    public NetworkEvent poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : removeAt(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting events; queued events can still be taken. Blocked producers are released.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes the least important queued event if it is less important than the new one
+    private boolean dropLessImportantThan(NetworkEvent event) {
+        int lowest = MAX_PRIORITY;
+        while (queuedByPriority[lowest] == 0) {
+            lowest--;
+        }
+        if (priorityOf(event) >= lowest) {
+            return false;
+        }
+        // Oldest event of the lowest priority goes first
+        for (int i = 0; i < count; i++) {
+            if (priorityOf(ring[(head + i) % ring.length]) == lowest) {
+                dropListener.accept(removeAt(i));
+                droppedLowestPriority.incrementAndGet();
+                return true;
+            }
+        }
+        throw new IllegalStateException("Priority counters out of sync");
+    }
+
+    // Removes the event at the given position (0 = oldest), closing the gap towards the head
+    private NetworkEvent removeAt(int position) {
+        int index = (head + position) % ring.length;
+        NetworkEvent event = ring[index];
+        for (int i = position; i > 0; i--) {
+            int current = (head + i) % ring.length;
+            int previous = (head + i - 1) % ring.length;
+            ring[current] = ring[previous];
+        }
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        count--;
+        queuedByPriority[priorityOf(event)]--;
+        updateDepth();
+        notFull.signal();
+        return event;
+    }
+
+    private void updateDepth() {
+        depth = count;
+        if (count > highWaterMark) {
+            highWaterMark = count;
+        }
+    }
+
+    private static int priorityOf(NetworkEvent event) {
+        return Math.max(MIN_PRIORITY, Math.min(MAX_PRIORITY, event.getPriority()));
+    }
+
+    public int getCapacity() { return ring.length; }
+    public OverloadPolicy getPolicy() { return policy; }
+    @Override public int getDepth() { return depth; }
+    public int getHighWaterMark() { return highWaterMark; }
+    @Override public long getAcceptedCount() { return accepted.get(); }
+    public long getDroppedOldestCount() { return droppedOldest.get(); }
+    public long getDroppedLowestPriorityCount() { return droppedLowestPriority.get(); }
+    @Override public long getRejectedCount() { return rejected.get(); }
+    @Override public long getDroppedCount() { return droppedOldest.get() + droppedLowestPriority.get(); }
+}
@@ -0,0 +1,29 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEvent;
+
+/**
+ * Ingestion stage of the orchestrator: producers offer events, the dispatcher takes them.
+ */
+public interface EventQueue {
+
+    /**
+     * Enqueues the event; false if this event will not be processed (rejected, dropped or closed).
+     */
+    boolean offer(NetworkEvent event) throws InterruptedException;
+
+    /**
+     * Next event to process, waiting if necessary. Null once the queue is closed and drained.
+     */
+    NetworkEvent take() throws InterruptedException;
+
+    /**
+     * Stops accepting events; queued events can still be taken.
+     */
+    void close();
+
+    int getDepth();
+    long getAcceptedCount();
+    long getDroppedCount();
+    long getRejectedCount();
+}
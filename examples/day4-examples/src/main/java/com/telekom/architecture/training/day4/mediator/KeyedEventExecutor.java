@@ -0,0 +1,132 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed executor: tasks with the same key run one after another, different keys in parallel.
+ *
+ * A fixed set of stripes, each one worker thread with a bounded inbox. A key always maps to the
+ * same stripe, so its tasks run in submission order and never overlap; keys on other stripes
+ * run at the same time. Submitting to a full stripe blocks, which passes backpressure on to
+ * the caller instead of growing a queue.
+ *
+ * The orchestrator keys by source device: the events of a device are processed in order.
+ */
+public class KeyedEventExecutor {
+
+    // Marks the end of a stripe's inbox on shutdown
+    private static final Runnable STOP = () -> { };
+
+    private final Stripe[] stripes;
+    private final AtomicLong completed = new AtomicLong();
+    private volatile boolean shutdown;
+
+    public KeyedEventExecutor(int stripeCount, int stripeCapacity, String threadNamePrefix) {
+        if (stripeCount <= 0 || stripeCapacity <= 0) {
+            throw new IllegalArgumentException("Stripe count and capacity must be positive");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(stripeCapacity, threadNamePrefix + "-" + i);
+            stripes[i].worker.start();
+        }
+    }
+
+    /**
+     * Runs the task after all earlier tasks of the same key; waits while the key's stripe is full.
+     */
+    public void execute(String key, Runnable task) throws InterruptedException {
+        if (shutdown) {
+            throw new IllegalStateException("Executor is shut down");
+        }
+        stripes[stripeOf(key)].inbox.put(task);
+    }
+
+    /**
+     * Already submitted tasks still run, then the workers stop.
+     */
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (Stripe stripe : stripes) {
+            try {
+                stripe.inbox.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stripe.worker.interrupt();
+            }
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Stripe stripe : stripes) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return !isAlive();
+            }
+            stripe.worker.join(remainingMillis);
+        }
+        return !isAlive();
+    }
+
+    private boolean isAlive() {
+        for (Stripe stripe : stripes) {
+            if (stripe.worker.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int stripeOf(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    public int getStripeCount() { return stripes.length; }
+    public long getCompletedCount() { return completed.get(); }
+
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Stripe stripe : stripes) {
+            queued += stripe.inbox.size();
+        }
+        return queued;
+    }
+
+    private final class Stripe {
+        private final BlockingQueue<Runnable> inbox;
+        private final Thread worker;
+
+        Stripe(int capacity, String name) {
+            inbox = new ArrayBlockingQueue<>(capacity);
+            worker = new Thread(this::run, name);
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Runnable task = inbox.take();
+                    if (task == STOP) {
+                        return;
+                    }
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // A failing task must not stop the lane for the other keys of this stripe
+                        System.err.println("❌ Task on " + worker.getName() + " failed: " + e.getMessage());
+                    }
+                    completed.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
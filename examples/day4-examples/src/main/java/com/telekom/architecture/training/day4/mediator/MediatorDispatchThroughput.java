@@ -0,0 +1,170 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkDevice;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEvent;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEventType;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.TelekomNetworkOrchestrator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * THROUGHPUT DEMO: Full device scan vs per-event-type subscriber indexes
+ *
+ * Compares the former dispatch (parallelStream + type string filter over all devices for
+ * every event) with the indexed dispatch of TelekomNetworkOrchestrator at 1k, 10k and 100k
+ * devices. Events cycle through all event types; devices only count deliveries, so the
+ * numbers show the cost of the fan-out itself. Both variants write the orchestrator's per-event
+ * log line into a silenced System.out. A run that does not finish within 5 minutes fails.
+ *
+ * Usage: java -cp day4-examples.jar com.telekom.architecture.training.day4.mediator.MediatorDispatchThroughput
+ */
+public class MediatorDispatchThroughput {
+
+    private static final int[] DEVICE_COUNTS = {1_000, 10_000, 100_000};
+    private static final String[] DEVICE_TYPES = {
+        "SWITCH", "SWITCH", "SWITCH", "SWITCH", "SWITCH", "ROUTER", "ROUTER", "FIREWALL", "LOAD_BALANCER", "MONITOR"
+    };
+    // Roughly 20M deliveries per run, whatever the device count
+    private static final long DELIVERIES_PER_RUN = 20_000_000L;
+    private static final int SOURCES = 100;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("🏁 MEDIATOR DISPATCH THROUGHPUT");
+        System.out.println("===============================");
+
+        for (int deviceCount : DEVICE_COUNTS) {
+            int events = (int) Math.max(100, DELIVERIES_PER_RUN / deviceCount);
+            // First round warms up, the second is reported
+            runFullScan(deviceCount, events);
+            double fullScan = runFullScan(deviceCount, events);
+            runIndexed(deviceCount, events);
+            double indexed = runIndexed(deviceCount, events);
+            System.out.printf("📊 %,7d devices, %,6d events: full scan %,10.0f events/s, indexed %,10.0f events/s (%.1fx)%n",
+                deviceCount, events, fullScan, indexed, indexed / fullScan);
+        }
+    }
+
+    // Former dispatch: every event filters the complete device list
+    private static double runFullScan(int deviceCount, int events) throws Exception {
+        List<NetworkDevice> devices = new CopyOnWriteArrayList<>(createDevices(deviceCount, new LongAdder()));
+        ExecutorService eventProcessor = Executors.newFixedThreadPool(10);
+        PrintStream console = silence();
+        try {
+            List<CompletableFuture<Void>> pending = new ArrayList<>(events);
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                NetworkEvent event = event(i);
+                pending.add(CompletableFuture.runAsync(() -> {
+                    System.out.println(LocalDateTime.now() + " [ORCHESTRATOR] Processing event: "
+                        + event.getEventType() + " from " + event.getSourceDeviceId());
+                    devices.parallelStream()
+                        .filter(device -> isRelevant(device, event))
+                        .forEach(device -> device.onNetworkEvent(event));
+                }, eventProcessor));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.MINUTES);
+            return events / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            eventProcessor.shutdownNow();
+            System.setOut(console);
+        }
+    }
+
+    private static double runIndexed(int deviceCount, int events) throws Exception {
+        LongAdder deliveries = new LongAdder();
+        TelekomNetworkOrchestrator orchestrator = new TelekomNetworkOrchestrator();
+        PrintStream console = silence();
+        try {
+            for (NetworkDevice device : createDevices(deviceCount, deliveries)) {
+                orchestrator.registerDevice(device);
+            }
+            long expected = 0;
+            for (int i = 0; i < events; i++) {
+                NetworkEventType eventType = event(i).getEventType();
+                expected += orchestrator.getSubscriberCount(eventType) - (eventType == NetworkEventType.STATUS_CHANGE ? 1 : 0);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                orchestrator.notifyEvent(event(i));
+            }
+            long deadline = start + TimeUnit.MINUTES.toNanos(5);
+            while (deliveries.sum() < expected) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("Indexed run delivered " + deliveries.sum() + " of " + expected
+                        + " events within 5 minutes");
+                }
+                Thread.onSpinWait();
+            }
+            return events / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            orchestrator.shutdown();
+            System.setOut(console);
+        }
+    }
+
+    private static List<NetworkDevice> createDevices(int count, LongAdder deliveries) {
+        List<NetworkDevice> devices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            devices.add(new CountingDevice("DEV" + i, DEVICE_TYPES[i % DEVICE_TYPES.length], deliveries));
+        }
+        return devices;
+    }
+
+    // Events from the first SOURCES devices, cycling through all event types. Events of one
+    // device are processed in order, so a single source would measure one worker lane only.
+    private static NetworkEvent event(int sequence) {
+        NetworkEventType[] eventTypes = NetworkEventType.values();
+        return new NetworkEvent("DEV" + (sequence % SOURCES), eventTypes[sequence % eventTypes.length],
+            "Benchmark event " + sequence, 3);
+    }
+
+    private static boolean isRelevant(NetworkDevice device, NetworkEvent event) {
+        String type = device.getType();
+        switch (event.getEventType()) {
+            case STATUS_CHANGE:
+                return !device.getId().equals(event.getSourceDeviceId());
+            case TOPOLOGY_CHANGE:
+                return type.equals("ROUTER") || type.equals("SWITCH");
+            case CONFIGURATION_UPDATE:
+                return type.equals("FIREWALL") || type.equals("MONITOR");
+            case PERFORMANCE_ALERT:
+                return type.equals("LOAD_BALANCER") || type.equals("MONITOR");
+            case SECURITY_INCIDENT:
+                return type.equals("FIREWALL") || type.equals("MONITOR") || type.equals("ROUTER");
+            default:
+                return false;
+        }
+    }
+
+    private static PrintStream silence() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return console;
+    }
+
+    private static final class CountingDevice extends NetworkDevice {
+        private final LongAdder deliveries;
+
+        CountingDevice(String id, String type, LongAdder deliveries) {
+            super(id, type);
+            this.deliveries = deliveries;
+        }
+
+        @Override
+        public void onNetworkEvent(NetworkEvent event) {
+            deliveries.increment();
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.telekom.architecture.training.day4.mediator;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * FIXED IMPLEMENTATION using Mediator Pattern
@@ -25,6 +27,11 @@ import java.util.concurrent.Executors;
  * - Async processing with thread pools
  * - Circuit breaker pattern for resilience
  * - Centralized metrics and monitoring
+ * - Per-event-type subscriber indexes: fan-out touches only relevant devices
+ * - Bounded ingestion queue with overload policies: alarm storms cannot exhaust memory
+ * - Priority lanes: security incidents overtake floods of status changes
+ * - Optional coalescing window: flapping devices cause one dispatch per window
+ * - Keyed workers: events of one device run in order, different devices in parallel
  * 
  * Trainer Notes:
  * - Show how complexity drops from O(n²) to O(n)
@@ -73,25 +80,101 @@ public class NetworkDevicesCommunicationFixed {
     // Concrete Mediator - The heart of network orchestration
     public static class TelekomNetworkOrchestrator implements NetworkOrchestrationMediator {
         
-        private final List<NetworkDevice> devices = new CopyOnWriteArrayList<>();
-        private final ExecutorService eventProcessor = Executors.newFixedThreadPool(10);
+        // Routing rules: which device types receive which event type (STATUS_CHANGE goes to all devices)
+        private static final Map<NetworkEventType, String[]> SUBSCRIBED_DEVICE_TYPES = new EnumMap<>(NetworkEventType.class);
+        static {
+            SUBSCRIBED_DEVICE_TYPES.put(NetworkEventType.TOPOLOGY_CHANGE, new String[] {"ROUTER", "SWITCH"});
+            SUBSCRIBED_DEVICE_TYPES.put(NetworkEventType.CONFIGURATION_UPDATE, new String[] {"FIREWALL", "MONITOR"});
+            SUBSCRIBED_DEVICE_TYPES.put(NetworkEventType.PERFORMANCE_ALERT, new String[] {"LOAD_BALANCER", "MONITOR"});
+            SUBSCRIBED_DEVICE_TYPES.put(NetworkEventType.SECURITY_INCIDENT, new String[] {"FIREWALL", "MONITOR", "ROUTER"});
+        }
+        private static final int INDEX_SHARDS = 64;
+        private static final int WORKER_THREADS = 10;
+        private static final int DEFAULT_LANE_CAPACITY = 10_000;
+        
+        private final Map<String, NetworkDevice> devices = new ConcurrentHashMap<>();
+        // Subscriber index per event type, maintained on register/unregister instead of filtering per event
+        private final Map<NetworkEventType, DeviceIndex> subscribers = new EnumMap<>(NetworkEventType.class);
+        // One ordered lane per source device, striped over the worker threads
+        private final KeyedEventExecutor eventProcessor =
+            new KeyedEventExecutor(WORKER_THREADS, WORKER_THREADS, "orchestrator-worker");
+        // notifyEvent -> bounded queue -> dispatcher -> per-device worker lanes
+        private final EventQueue ingestionQueue;
+        // Optional stage in front of the queue, null if coalescing is off
+        private final EventCoalescer coalescer;
+        // Events handed to the workers but not finished; keeps the backlog in the (priority) queue
+        private final Semaphore inFlight = new Semaphore(WORKER_THREADS);
+        private final Thread dispatcher;
         private final AtomicInteger processedEvents = new AtomicInteger(0);
         private volatile boolean circuitBreakerOpen = false;
         private AtomicInteger failureCount = new AtomicInteger(0);
         
+        public TelekomNetworkOrchestrator() {
+            this(DEFAULT_LANE_CAPACITY, EventIngestionQueue.OverloadPolicy.BLOCK);
+        }
+        
+        // One priority lane per priority, each bounded by laneCapacity
+        public TelekomNetworkOrchestrator(int laneCapacity, EventIngestionQueue.OverloadPolicy overloadPolicy) {
+            this(new PriorityLaneScheduler(laneCapacity, overloadPolicy));
+        }
+        
+        public TelekomNetworkOrchestrator(EventQueue ingestionQueue) {
+            this(ingestionQueue, null);
+        }
+        
+        // Keeps only the latest event per (source device, event type) within the window
+        public TelekomNetworkOrchestrator(EventQueue ingestionQueue, Duration coalescingWindow,
+                                          NetworkEventType... coalescedTypes) {
+            for (NetworkEventType eventType : NetworkEventType.values()) {
+                subscribers.put(eventType, new DeviceIndex(INDEX_SHARDS));
+            }
+            this.ingestionQueue = ingestionQueue;
+            this.coalescer = coalescingWindow != null
+                ? new EventCoalescer(ingestionQueue, coalescingWindow, coalescedTypes) : null;
+            dispatcher = new Thread(this::dispatchEvents, "orchestrator-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+        
+        // Map and index updates for one device ID run inside compute(), which holds the map's lock for
+        // that key: a concurrent unregister or re-register of the same ID cannot leave a stale subscriber
         @Override
         public void registerDevice(NetworkDevice device) {
-            devices.add(device);
+            devices.compute(device.getId(), (id, previous) -> {
+                if (previous != null) {
+                    removeFromIndexes(previous);
+                }
+                for (NetworkEventType eventType : NetworkEventType.values()) {
+                    if (isSubscribed(device.getType(), eventType)) {
+                        subscribers.get(eventType).add(device);
+                    }
+                }
+                return device;
+            });
             device.setMediator(this);
             System.out.println(LocalDateTime.now() + " [ORCHESTRATOR] Device registered: " + device.getId() + " (" + device.getType() + ")");
         }
         
         @Override
         public void unregisterDevice(String deviceId) {
-            devices.removeIf(device -> device.getId().equals(deviceId));
+            devices.computeIfPresent(deviceId, (id, removed) -> {
+                removeFromIndexes(removed);
+                return null;
+            });
             System.out.println(LocalDateTime.now() + " [ORCHESTRATOR] Device unregistered: " + deviceId);
         }
         
+        private void removeFromIndexes(NetworkDevice device) {
+            for (DeviceIndex index : subscribers.values()) {
+                index.remove(device);
+            }
+        }
+        
+        private static boolean isSubscribed(String deviceType, NetworkEventType eventType) {
+            String[] deviceTypes = SUBSCRIBED_DEVICE_TYPES.get(eventType);
+            return deviceTypes == null || Arrays.asList(deviceTypes).contains(deviceType);
+        }
+        
         @Override
         public void notifyEvent(NetworkEvent event) {
             if (circuitBreakerOpen) {
@@ -99,12 +182,43 @@ public class NetworkDevicesCommunicationFixed {
                 return;
             }
             
-            // Async processing for better performance
-            CompletableFuture.runAsync(() -> processEvent(event), eventProcessor)
-                .exceptionally(throwable -> {
-                    handleEventProcessingFailure(event, throwable);
-                    return null;
-                });
+            // Async processing through the bounded ingestion queue
+            try {
+                if (coalescer != null) {
+                    coalescer.submit(event);
+                } else {
+                    ingestionQueue.offer(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        // Single consumer: hands events to the worker lane of their source device, in queue order,
+        // at most one per worker at a time so the workers never build up their own backlog
+        private void dispatchEvents() {
+            try {
+                while (true) {
+                    inFlight.acquire();
+                    NetworkEvent event = ingestionQueue.take();
+                    if (event == null) {
+                        break;
+                    }
+                    eventProcessor.execute(event.getSourceDeviceId(), () -> {
+                        try {
+                            processEvent(event);
+                        } catch (RuntimeException e) {
+                            handleEventProcessingFailure(event, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                eventProcessor.shutdown();
+            }
         }
         
         private void processEvent(NetworkEvent event) {
@@ -136,45 +250,28 @@ public class NetworkDevicesCommunicationFixed {
         }
         
         private void handleStatusChange(NetworkEvent event) {
-            // Notify only relevant devices based on business rules
-            devices.parallelStream()
-                .filter(device -> shouldNotifyForStatusChange(device, event))
-                .forEach(device -> device.onNetworkEvent(event));
+            // Notify every device except the source - it knows its own status
+            subscribers.get(NetworkEventType.STATUS_CHANGE).dispatch(event, devices.get(event.getSourceDeviceId()));
         }
         
         private void handleTopologyChange(NetworkEvent event) {
             // Routers and switches need to know about topology changes
-            devices.parallelStream()
-                .filter(device -> device.getType().equals("ROUTER") || device.getType().equals("SWITCH"))
-                .forEach(device -> device.onNetworkEvent(event));
+            subscribers.get(NetworkEventType.TOPOLOGY_CHANGE).dispatch(event, null);
         }
         
         private void handleConfigurationUpdate(NetworkEvent event) {
             // Security devices need configuration updates
-            devices.parallelStream()
-                .filter(device -> device.getType().equals("FIREWALL") || device.getType().equals("MONITOR"))
-                .forEach(device -> device.onNetworkEvent(event));
+            subscribers.get(NetworkEventType.CONFIGURATION_UPDATE).dispatch(event, null);
         }
         
         private void handlePerformanceAlert(NetworkEvent event) {
             // Load balancers and monitoring systems handle performance
-            devices.parallelStream()
-                .filter(device -> device.getType().equals("LOAD_BALANCER") || device.getType().equals("MONITOR"))
-                .forEach(device -> device.onNetworkEvent(event));
+            subscribers.get(NetworkEventType.PERFORMANCE_ALERT).dispatch(event, null);
         }
         
         private void handleSecurityIncident(NetworkEvent event) {
             // High priority - notify all security-relevant devices
-            devices.parallelStream()
-                .filter(device -> device.getType().equals("FIREWALL") || 
-                               device.getType().equals("MONITOR") || 
-                               device.getType().equals("ROUTER"))
-                .forEach(device -> device.onNetworkEvent(event));
-        }
-        
-        private boolean shouldNotifyForStatusChange(NetworkDevice device, NetworkEvent event) {
-            // Business logic: don't notify device about its own status changes
-            return !device.getId().equals(event.getSourceDeviceId());
+            subscribers.get(NetworkEventType.SECURITY_INCIDENT).dispatch(event, null);
         }
         
         private void handleEventProcessingFailure(NetworkEvent event, Throwable throwable) {
@@ -190,14 +287,110 @@ public class NetworkDevicesCommunicationFixed {
         
         @Override
         public void shutdown() {
-            eventProcessor.shutdown();
+            // Pending and queued events are still processed, then the dispatcher stops the workers
+            if (coalescer != null) {
+                coalescer.close();
+            }
+            ingestionQueue.close();
+        }
+        
+        // Waits until shutdown() has drained the queue and all workers are done
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return eventProcessor.awaitTermination(timeout, unit);
         }
         
         public int getProcessedEventCount() { return processedEvents.get(); }
         public int getRegisteredDeviceCount() { return devices.size(); }
+        public int getSubscriberCount(NetworkEventType eventType) { return subscribers.get(eventType).size(); }
+        public int getQueueDepth() { return ingestionQueue.getDepth(); }
+        public long getDroppedEventCount() { return ingestionQueue.getDroppedCount(); }
+        public long getRejectedEventCount() { return ingestionQueue.getRejectedCount(); }
+        public EventQueue getIngestionQueue() { return ingestionQueue; }
+        public long getCollapsedEventCount() { return coalescer != null ? coalescer.getCollapsedCount() : 0; }
         public boolean isCircuitBreakerOpen() { return circuitBreakerOpen; }
     }
     
+    /**
+     * Lock-free device index for one event type.
+     * 
+     * Devices are spread over shards by ID hash; each shard is an immutable array that is
+     * replaced by CAS on change. Dispatch iterates the arrays without locking, and a
+     * registration copies only one shard instead of the whole device list.
+     */
+    static final class DeviceIndex {
+        private static final NetworkDevice[] EMPTY = new NetworkDevice[0];
+        
+        private final AtomicReferenceArray<NetworkDevice[]> shards;
+        private final AtomicInteger size = new AtomicInteger(0);
+        
+        DeviceIndex(int shardCount) {
+            if (Integer.bitCount(shardCount) != 1) {
+                throw new IllegalArgumentException("Shard count must be a power of two: " + shardCount);
+            }
+            shards = new AtomicReferenceArray<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.set(i, EMPTY);
+            }
+        }
+        
+        void add(NetworkDevice device) {
+            int shard = shardOf(device);
+            while (true) {
+                NetworkDevice[] current = shards.get(shard);
+                NetworkDevice[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = device;
+                if (shards.compareAndSet(shard, current, updated)) {
+                    size.incrementAndGet();
+                    return;
+                }
+            }
+        }
+        
+        boolean remove(NetworkDevice device) {
+            int shard = shardOf(device);
+            while (true) {
+                NetworkDevice[] current = shards.get(shard);
+                int position = -1;
+                for (int i = 0; i < current.length; i++) {
+                    if (current[i] == device) {
+                        position = i;
+                        break;
+                    }
+                }
+                if (position < 0) {
+                    return false;
+                }
+                NetworkDevice[] updated = new NetworkDevice[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, position);
+                System.arraycopy(current, position + 1, updated, position, updated.length - position);
+                if (shards.compareAndSet(shard, current, updated)) {
+                    size.decrementAndGet();
+                    return true;
+                }
+            }
+        }
+        
+        // Delivers the event to every indexed device except skip (may be null)
+        void dispatch(NetworkEvent event, NetworkDevice skip) {
+            for (int shard = 0; shard < shards.length(); shard++) {
+                for (NetworkDevice device : shards.get(shard)) {
+                    if (device != skip) {
+                        device.onNetworkEvent(event);
+                    }
+                }
+            }
+        }
+        
+        int size() {
+            return size.get();
+        }
+        
+        private int shardOf(NetworkDevice device) {
+            int hash = device.getId().hashCode();
+            return (hash ^ (hash >>> 16)) & (shards.length() - 1);
+        }
+    }
+    
     // Base NetworkDevice class
     public abstract static class NetworkDevice {
         protected final String id;
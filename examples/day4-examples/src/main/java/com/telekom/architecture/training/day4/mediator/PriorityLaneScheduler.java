@@ -0,0 +1,236 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEvent;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEventType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Priority-aware ingestion: one bounded lane per priority, drained by weighted round robin.
+ *
+ * Events go into the lane of their priority (1 = critical ... 5 = info); security incidents
+ * always use the critical lane. Each lane is an EventIngestionQueue with its own capacity and
+ * overload policy, so a flood of status changes fills and drops in its own lane and never
+ * delays or blocks a security event.
+ *
+ * Events of one device keep their order across lanes: while a device still has events queued,
+ * its next events join the lane of those events, even if they are more important. Otherwise an
+ * OFFLINE status (priority 1) could overtake an earlier ONLINE (priority 3) and subscribers would
+ * end up with the wrong state. The priority inversion is limited to that one device.
+ * Security incidents are never pinned: they report an attack, not a device state, so they always
+ * go straight to the critical lane - even when the flooding device raises them itself - and do
+ * not wait behind that device's backlog or fall to a lower lane's overload policy.
+ *
+ * Draining: in every round a lane may hand out as many events as its weight (default 16, 8, 4,
+ * 2, 1). The most important lane with credit left goes first; when no backlogged lane has
+ * credit, all credits are refilled. A backlogged lane therefore gets at least weight / sum of
+ * weights of the dispatches - critical events are preferred, info events never starve.
+ */
+public class PriorityLaneScheduler implements EventQueue {
+
+    private static final int LANES = 5;
+    private static final int[] DEFAULT_WEIGHTS = {16, 8, 4, 2, 1};
+
+    private final EventIngestionQueue[] lanes = new EventIngestionQueue[LANES];
+    private final int[] weights;
+    // Remaining credits of the current round, only touched by the consumer under the lock
+    private final int[] credits;
+    private final AtomicLongArray dispatched = new AtomicLongArray(LANES);
+    // Devices with queued events and the lane they are queued in; removed once a device is drained
+    private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private volatile boolean closed;
+
+    public PriorityLaneScheduler(int laneCapacity, EventIngestionQueue.OverloadPolicy policy) {
+        this(laneCapacity, policy, DEFAULT_WEIGHTS);
+    }
+
+    public PriorityLaneScheduler(int laneCapacity, EventIngestionQueue.OverloadPolicy policy, int... weights) {
+        if (weights.length != LANES) {
+            throw new IllegalArgumentException("Expected " + LANES + " lane weights, got " + weights.length);
+        }
+        for (int weight : weights) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Lane weights must be positive");
+            }
+        }
+        for (int lane = 0; lane < LANES; lane++) {
+            lanes[lane] = new EventIngestionQueue(laneCapacity, policy, this::release);
+        }
+        this.weights = weights.clone();
+        this.credits = weights.clone();
+    }
+
+    @Override
+    public boolean offer(NetworkEvent event) throws InterruptedException {
+        // The lane may block (BLOCK policy) - outside our lock, so other lanes keep flowing
+        if (!lanes[reserveLane(event)].offer(event)) {
+            release(event);
+            return false;
+        }
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public NetworkEvent take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                NetworkEvent event = next();
+                if (event != null) {
+                    return event;
+                }
+                if (closed) {
+                    // Offers racing with close() may still have landed
+                    return next();
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (EventIngestionQueue lane : lanes) {
+                lane.close();
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Weighted round robin: most important lane with credit first, refill when the round is over
+    private NetworkEvent next() {
+        NetworkEvent event = nextWithCredit();
+        if (event == null) {
+            System.arraycopy(weights, 0, credits, 0, LANES);
+            event = nextWithCredit();
+        }
+        return event;
+    }
+
+    private NetworkEvent nextWithCredit() {
+        for (int lane = 0; lane < LANES; lane++) {
+            if (credits[lane] > 0) {
+                NetworkEvent event = lanes[lane].poll();
+                if (event != null) {
+                    release(event);
+                    credits[lane]--;
+                    dispatched.incrementAndGet(lane);
+                    return event;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Lane of the device's queued events if it has any, otherwise the event's own lane
+    private int reserveLane(NetworkEvent event) {
+        String source = event.getSourceDeviceId();
+        if (source == null || isUnordered(event)) {
+            return laneOf(event);
+        }
+        return backlogs.compute(source, (id, backlog) -> {
+            if (backlog == null) {
+                return new Backlog(laneOf(event));
+            }
+            backlog.queued++;
+            return backlog;
+        }).lane;
+    }
+
+    // Event left the scheduler: taken, dropped by an overload policy, or not accepted
+    private void release(NetworkEvent event) {
+        String source = event.getSourceDeviceId();
+        if (source != null && !isUnordered(event)) {
+            backlogs.computeIfPresent(source, (id, backlog) -> --backlog.queued == 0 ? null : backlog);
+        }
+    }
+
+    // Not part of the device's backlog: neither pinned nor counted
+    private static boolean isUnordered(NetworkEvent event) {
+        return event.getEventType() == NetworkEventType.SECURITY_INCIDENT;
+    }
+
+    private static int laneOf(NetworkEvent event) {
+        if (isUnordered(event)) {
+            return 0;
+        }
+        return Math.max(1, Math.min(LANES, event.getPriority())) - 1;
+    }
+
+    /**
+     * Lane for the given priority (1 = critical ... 5 = info), for per-lane metrics.
+     * A lane may also hold more important events of devices that were already queued there.
+     */
+    public EventIngestionQueue getLane(int priority) {
+        return lanes[priority - 1];
+    }
+
+    public long getDispatchedCount(int priority) {
+        return dispatched.get(priority - 1);
+    }
+
+    @Override
+    public int getDepth() {
+        int depth = 0;
+        for (EventIngestionQueue lane : lanes) {
+            depth += lane.getDepth();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getAcceptedCount() {
+        long accepted = 0;
+        for (EventIngestionQueue lane : lanes) {
+            accepted += lane.getAcceptedCount();
+        }
+        return accepted;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (EventIngestionQueue lane : lanes) {
+            dropped += lane.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    @Override
+    public long getRejectedCount() {
+        long rejected = 0;
+        for (EventIngestionQueue lane : lanes) {
+            rejected += lane.getRejectedCount();
+        }
+        return rejected;
+    }
+
+    // Queued events of one device; only changed inside ConcurrentHashMap.compute
+    private static final class Backlog {
+        private final int lane;
+        private int queued = 1;
+
+        Backlog(int lane) {
+            this.lane = lane;
+        }
+    }
+}
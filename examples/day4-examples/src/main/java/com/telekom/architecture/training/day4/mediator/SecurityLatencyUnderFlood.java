@@ -0,0 +1,139 @@
+package com.telekom.architecture.training.day4.mediator;
+
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkDevice;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEvent;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.NetworkEventType;
+import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.TelekomNetworkOrchestrator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LATENCY DEMO: Security incidents during a flood of low-priority status changes
+ *
+ * Two threads flood the orchestrator with priority-5 STATUS_CHANGE events of 100 flapping
+ * devices, more than the workers can handle, while a security incident is raised every 5ms. The time from
+ * notifyEvent until the firewall sees the incident is recorded. Runs once with a single FIFO
+ * queue and once with priority lanes; both block the producer when full, so nothing is lost.
+ *
+ * Usage: java -cp day4-examples.jar com.telekom.architecture.training.day4.mediator.SecurityLatencyUnderFlood [incidents]
+ * (default: 400)
+ */
+public class SecurityLatencyUnderFlood {
+
+    private static final int CAPACITY = 2_000;
+    private static final int SWITCHES = 50;
+    // Flapping devices per flood thread; spreads the flood over all worker lanes
+    private static final int FLAPPING_DEVICES = 50;
+    private static final long WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    public static void main(String[] args) throws Exception {
+        int incidents = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+
+        System.out.println("🏁 SECURITY INCIDENT LATENCY UNDER FLOOD");
+        System.out.println("=======================================");
+        System.out.printf("Incidents: %d, %d busy switches, queue capacity %d%n%n", incidents, SWITCHES, CAPACITY);
+
+        run("📊 Single FIFO queue",
+            new EventIngestionQueue(CAPACITY, EventIngestionQueue.OverloadPolicy.BLOCK), incidents);
+        PriorityLaneScheduler lanes = new PriorityLaneScheduler(CAPACITY, EventIngestionQueue.OverloadPolicy.BLOCK);
+        run("🚦 Priority lanes", lanes, incidents);
+        System.out.printf("   dispatched per lane: %d / %d / %d / %d / %d%n",
+            lanes.getDispatchedCount(1), lanes.getDispatchedCount(2), lanes.getDispatchedCount(3),
+            lanes.getDispatchedCount(4), lanes.getDispatchedCount(5));
+    }
+
+    private static void run(String title, EventQueue queue, int incidents) throws Exception {
+        TelekomNetworkOrchestrator orchestrator = new TelekomNetworkOrchestrator(queue);
+        Map<NetworkEvent, Long> sentAt = new ConcurrentHashMap<>();
+        long[] latencies = new long[incidents];
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch allReceived = new CountDownLatch(incidents);
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Thread[] flooders = new Thread[2];
+        try {
+            orchestrator.registerDevice(new NetworkDevice("FW-BENCH", "FIREWALL") {
+                @Override
+                public void onNetworkEvent(NetworkEvent event) {
+                    Long start = sentAt.remove(event);
+                    if (start != null) {
+                        latencies[received.getAndIncrement()] = System.nanoTime() - start;
+                        allReceived.countDown();
+                    }
+                }
+            });
+            for (int i = 0; i < SWITCHES; i++) {
+                orchestrator.registerDevice(new BusyDevice("SW-BENCH-" + i));
+            }
+
+            for (int f = 0; f < flooders.length; f++) {
+                String prefix = "FLOOD-" + f + "-";
+                flooders[f] = new Thread(() -> {
+                    for (int n = 0; !Thread.currentThread().isInterrupted(); n++) {
+                        orchestrator.notifyEvent(new NetworkEvent(prefix + (n % FLAPPING_DEVICES),
+                            NetworkEventType.STATUS_CHANGE, "Status changed to: FLAPPING", 5));
+                    }
+                });
+                flooders[f].setDaemon(true);
+                flooders[f].start();
+            }
+            Thread.sleep(500); // let the flood fill the queue
+
+            for (int i = 0; i < incidents; i++) {
+                NetworkEvent incident = new NetworkEvent("IDS-" + i, NetworkEventType.SECURITY_INCIDENT,
+                    "Intrusion attempt", 1);
+                sentAt.put(incident, System.nanoTime());
+                orchestrator.notifyEvent(incident);
+                Thread.sleep(5);
+            }
+            allReceived.await(10, TimeUnit.SECONDS);
+        } finally {
+            for (Thread flooder : flooders) {
+                if (flooder != null) {
+                    flooder.interrupt();
+                }
+            }
+            orchestrator.shutdown();
+            orchestrator.awaitTermination(60, TimeUnit.SECONDS);
+            System.setOut(console);
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, received.get());
+        Arrays.sort(sorted);
+        System.out.println(title);
+        System.out.printf("   received %d/%d, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+            sorted.length, incidents, percentile(sorted, 50), percentile(sorted, 99),
+            sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Switch that spends some CPU on every status change, so the workers are saturated
+    private static final class BusyDevice extends NetworkDevice {
+
+        BusyDevice(String id) {
+            super(id, "SWITCH");
+        }
+
+        @Override
+        public void onNetworkEvent(NetworkEvent event) {
+            long until = System.nanoTime() + WORK_NANOS;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
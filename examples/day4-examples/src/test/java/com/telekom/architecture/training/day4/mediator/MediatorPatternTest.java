@@ -7,6 +7,17 @@ import static org.assertj.core.api.Assertions.*;
 
 import com.telekom.architecture.training.day4.mediator.NetworkDevicesCommunicationFixed.*;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 /**
  * Test suite for Mediator Pattern implementation
  * 
@@ -156,6 +167,350 @@ class MediatorPatternTest {
         assertThat(orchestrator.getRegisteredDeviceCount()).isEqualTo(4);
     }
     
+    @Test
+    @DisplayName("Subscriber indexes should follow registration and unregistration")
+    void shouldMaintainSubscriberIndexes() throws InterruptedException {
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.STATUS_CHANGE)).isEqualTo(5);
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.TOPOLOGY_CHANGE)).isEqualTo(2);
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.SECURITY_INCIDENT)).isEqualTo(3);
+        
+        orchestrator.unregisterDevice("R001");
+        Router replacement = new Router("R002");
+        orchestrator.registerDevice(replacement);
+        orchestrator.registerDevice(replacement); // re-registration must not duplicate
+        
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.TOPOLOGY_CHANGE)).isEqualTo(2);
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.STATUS_CHANGE)).isEqualTo(5);
+        
+        orchestrator.notifyEvent(new NetworkEvent("TOPO001", NetworkEventType.TOPOLOGY_CHANGE, "Link added", 3));
+        Thread.sleep(100);
+        
+        assertThat(router.getEventProcessedCount()).isZero();
+        assertThat(replacement.getEventProcessedCount()).isEqualTo(1);
+        assertThat(switchDevice.getEventProcessedCount()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Concurrent registration and unregistration should keep indexes in line with devices")
+    void shouldKeepSubscriberIndexesConsistentUnderConcurrentRegistration() throws InterruptedException {
+        orchestrator.unregisterDevice("R001");
+        orchestrator.unregisterDevice("SW001");
+        orchestrator.unregisterDevice("FW001");
+        orchestrator.unregisterDevice("LB001");
+        orchestrator.unregisterDevice("MON001");
+        
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String id = "R" + (i % 4);
+                    if ((i + thread) % 2 == 0) {
+                        orchestrator.registerDevice(new Router(id));
+                    } else {
+                        orchestrator.unregisterDevice(id);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        int devices = orchestrator.getRegisteredDeviceCount();
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.STATUS_CHANGE)).isEqualTo(devices);
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.TOPOLOGY_CHANGE)).isEqualTo(devices);
+        assertThat(orchestrator.getSubscriberCount(NetworkEventType.SECURITY_INCIDENT)).isEqualTo(devices);
+    }
+    
+    @Test
+    @DisplayName("Ingestion queue should apply the configured overload policy")
+    void shouldApplyOverloadPolicies() throws InterruptedException {
+        EventIngestionQueue reject = fill(EventIngestionQueue.OverloadPolicy.REJECT, 3, 3, 3);
+        assertThat(reject.offer(statusEvent("NEW", 1))).isFalse();
+        assertThat(reject.getRejectedCount()).isEqualTo(1);
+        assertThat(reject.take().getSourceDeviceId()).isEqualTo("D0");
+        
+        EventIngestionQueue dropOldest = fill(EventIngestionQueue.OverloadPolicy.DROP_OLDEST, 3, 3, 3);
+        assertThat(dropOldest.offer(statusEvent("NEW", 5))).isTrue();
+        assertThat(dropOldest.getDroppedOldestCount()).isEqualTo(1);
+        assertThat(dropOldest.take().getSourceDeviceId()).isEqualTo("D1");
+        
+        EventIngestionQueue dropLowest = fill(EventIngestionQueue.OverloadPolicy.DROP_LOWEST_PRIORITY, 2, 5, 1);
+        assertThat(dropLowest.offer(statusEvent("INFO", 5))).isFalse(); // not more important than the queued info event
+        assertThat(dropLowest.offer(statusEvent("CRITICAL", 1))).isTrue();
+        assertThat(dropLowest.getDroppedLowestPriorityCount()).isEqualTo(2);
+        assertThat(dropLowest.getDepth()).isEqualTo(3);
+        assertThat(dropLowest.getHighWaterMark()).isEqualTo(3);
+        assertThat(dropLowest.take().getSourceDeviceId()).isEqualTo("D0");
+        assertThat(dropLowest.take().getSourceDeviceId()).isEqualTo("D2");
+        assertThat(dropLowest.take().getSourceDeviceId()).isEqualTo("CRITICAL");
+        
+        dropLowest.close();
+        assertThat(dropLowest.take()).isNull();
+        assertThat(dropLowest.offer(statusEvent("LATE", 1))).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Blocking overload policy should hold producers until there is space")
+    void shouldBlockProducersWhenQueueIsFull() throws Exception {
+        EventIngestionQueue queue = fill(EventIngestionQueue.OverloadPolicy.BLOCK, 3, 3);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.offer(statusEvent("WAITING", 3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        Thread.sleep(100);
+        assertThat(producer.isAlive()).isTrue();
+        
+        queue.take();
+        producer.join(1000);
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(queue.getDepth()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("Orchestrator should process queued events and report queue metrics")
+    void shouldReportQueueMetrics() throws InterruptedException {
+        TelekomNetworkOrchestrator bounded = new TelekomNetworkOrchestrator(100, EventIngestionQueue.OverloadPolicy.REJECT);
+        MonitoringSystem boundedMonitor = new MonitoringSystem("MON002");
+        bounded.registerDevice(boundedMonitor);
+        for (int i = 0; i < 20; i++) {
+            bounded.notifyEvent(new NetworkEvent("APP" + i, NetworkEventType.PERFORMANCE_ALERT, "Slow", 3));
+        }
+        bounded.shutdown();
+        Thread.sleep(200);
+        
+        assertThat(boundedMonitor.getEventProcessedCount()).isEqualTo(20);
+        assertThat(bounded.getQueueDepth()).isZero();
+        assertThat(bounded.getRejectedEventCount()).isZero();
+        assertThat(bounded.getIngestionQueue().getAcceptedCount()).isEqualTo(20);
+        
+        bounded.notifyEvent(new NetworkEvent("APP", NetworkEventType.PERFORMANCE_ALERT, "After shutdown", 3));
+        assertThat(bounded.getRejectedEventCount()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Priority lanes should prefer critical events without starving info events")
+    void shouldDrainPriorityLanesWeightedFair() throws InterruptedException {
+        PriorityLaneScheduler scheduler = new PriorityLaneScheduler(100, EventIngestionQueue.OverloadPolicy.REJECT);
+        for (int i = 0; i < 40; i++) {
+            scheduler.offer(statusEvent("INFO" + i, 5));
+        }
+        for (int i = 0; i < 40; i++) {
+            scheduler.offer(statusEvent("CRIT" + i, 1));
+        }
+        scheduler.offer(new NetworkEvent("IDS", NetworkEventType.SECURITY_INCIDENT, "Intrusion", 4));
+        
+        // Critical lane has weight 16, info lane weight 1: 16 critical, then one info event per round
+        for (int i = 0; i < 16; i++) {
+            assertThat(scheduler.take().getPriority()).isEqualTo(1);
+        }
+        assertThat(scheduler.take().getSourceDeviceId()).isEqualTo("INFO0");
+        assertThat(scheduler.take().getSourceDeviceId()).isEqualTo("CRIT16");
+        
+        int infoEvents = 1;
+        NetworkEvent event;
+        scheduler.close();
+        while ((event = scheduler.take()) != null) {
+            if (event.getSourceDeviceId().startsWith("INFO")) {
+                infoEvents++;
+            }
+        }
+        assertThat(infoEvents).isEqualTo(40);
+        assertThat(scheduler.getDispatchedCount(1)).isEqualTo(41); // security incident uses the critical lane
+        assertThat(scheduler.getDispatchedCount(5)).isEqualTo(40);
+        assertThat(scheduler.getDepth()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Priority lanes should keep the order of one device across priorities")
+    void shouldKeepDeviceOrderAcrossPriorityLanes() throws InterruptedException {
+        PriorityLaneScheduler scheduler = new PriorityLaneScheduler(100, EventIngestionQueue.OverloadPolicy.REJECT);
+        scheduler.offer(new NetworkEvent("R001", NetworkEventType.STATUS_CHANGE, "Status changed to: ONLINE", 3));
+        scheduler.offer(new NetworkEvent("R001", NetworkEventType.STATUS_CHANGE, "Status changed to: OFFLINE", 1));
+        scheduler.offer(statusEvent("SW001", 1));
+        
+        // Other devices still overtake, the OFFLINE event waits behind the device's earlier ONLINE event
+        assertThat(scheduler.take().getSourceDeviceId()).isEqualTo("SW001");
+        assertThat(scheduler.take().getDetails()).isEqualTo("Status changed to: ONLINE");
+        assertThat(scheduler.take().getDetails()).isEqualTo("Status changed to: OFFLINE");
+        
+        // Once the device is drained its events use their own lane again
+        scheduler.offer(statusEvent("R001", 1));
+        scheduler.take();
+        assertThat(scheduler.getDispatchedCount(1)).isEqualTo(2);
+        
+        // Events removed by an overload policy release the device as well
+        PriorityLaneScheduler dropping = new PriorityLaneScheduler(1, EventIngestionQueue.OverloadPolicy.DROP_OLDEST);
+        dropping.offer(statusEvent("R001", 5));
+        dropping.offer(statusEvent("SW001", 5));
+        dropping.offer(statusEvent("R001", 1));
+        assertThat(dropping.take().getPriority()).isEqualTo(1);
+        assertThat(dropping.getDispatchedCount(1)).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Priority lanes should not pin a security incident behind its own device's flood")
+    void shouldNotPinSecurityIncidentOfFloodingDevice() throws InterruptedException {
+        PriorityLaneScheduler scheduler = new PriorityLaneScheduler(10, EventIngestionQueue.OverloadPolicy.DROP_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            scheduler.offer(statusEvent("R001", 5));
+        }
+        scheduler.offer(new NetworkEvent("R001", NetworkEventType.SECURITY_INCIDENT, "Intrusion", 4));
+        // The device keeps flooding: the info lane drops its oldest events, never the incident
+        for (int i = 0; i < 20; i++) {
+            scheduler.offer(statusEvent("R001", 5));
+        }
+        
+        assertThat(scheduler.take().getEventType()).isEqualTo(NetworkEventType.SECURITY_INCIDENT);
+        assertThat(scheduler.getDispatchedCount(1)).isEqualTo(1);
+        assertThat(scheduler.getDroppedCount()).isEqualTo(20);
+        
+        // The device's status events keep their order in the info lane and release the device
+        scheduler.close();
+        int statusEvents = 0;
+        while (scheduler.take() != null) {
+            statusEvents++;
+        }
+        assertThat(statusEvents).isEqualTo(10);
+        assertThat(scheduler.getDispatchedCount(5)).isEqualTo(10);
+    }
+    
+    @Test
+    @DisplayName("Coalescer should forward only the latest event per device and type within the window")
+    void shouldCoalesceFlappingDevices() throws InterruptedException {
+        EventIngestionQueue queue = new EventIngestionQueue(100, EventIngestionQueue.OverloadPolicy.REJECT);
+        EventCoalescer coalescer = new EventCoalescer(queue, Duration.ofMillis(100), NetworkEventType.STATUS_CHANGE);
+        for (int i = 0; i < 50; i++) {
+            coalescer.submit(new NetworkEvent("R001", NetworkEventType.STATUS_CHANGE, "Flap " + i, 3));
+        }
+        for (int i = 0; i < 10; i++) {
+            coalescer.submit(new NetworkEvent("SW001", NetworkEventType.STATUS_CHANGE, "Flap " + i, 3));
+        }
+        coalescer.submit(new NetworkEvent("R001", NetworkEventType.TOPOLOGY_CHANGE, "Link down", 2));
+        
+        // Types that are not coalesced pass straight through
+        assertThat(queue.getDepth()).isEqualTo(1);
+        assertThat(coalescer.getPendingCount()).isEqualTo(2);
+        
+        Thread.sleep(300);
+        
+        assertThat(queue.getDepth()).isEqualTo(3);
+        assertThat(queue.take().getEventType()).isEqualTo(NetworkEventType.TOPOLOGY_CHANGE);
+        assertThat(List.of(queue.take().getDetails(), queue.take().getDetails()))
+            .containsExactlyInAnyOrder("Flap 49", "Flap 9");
+        assertThat(coalescer.getReceivedCount()).isEqualTo(61);
+        assertThat(coalescer.getCollapsedCount()).isEqualTo(58);
+        assertThat(coalescer.getForwardedCount()).isEqualTo(3);
+        
+        // A new window opens after the previous one was flushed; close() flushes it right away
+        coalescer.submit(new NetworkEvent("R001", NetworkEventType.STATUS_CHANGE, "Flap 50", 3));
+        coalescer.close();
+        assertThat(queue.take().getDetails()).isEqualTo("Flap 50");
+    }
+    
+    @Test
+    @DisplayName("Closing the coalescer should wait for flushes blocked on a full queue")
+    void shouldNotLoseBlockedFlushesOnClose() throws InterruptedException {
+        EventIngestionQueue queue = new EventIngestionQueue(1, EventIngestionQueue.OverloadPolicy.BLOCK);
+        queue.offer(statusEvent("FULL", 3));
+        EventCoalescer coalescer = new EventCoalescer(queue, Duration.ofMillis(20), NetworkEventType.STATUS_CHANGE);
+        coalescer.submit(statusEvent("R001", 3));
+        Thread.sleep(100); // window flush is now blocked in the full queue
+        
+        Thread closer = new Thread(coalescer::close);
+        closer.start();
+        Thread.sleep(100);
+        assertThat(closer.isAlive()).isTrue();
+        
+        assertThat(queue.take().getSourceDeviceId()).isEqualTo("FULL");
+        closer.join(1000);
+        assertThat(closer.isAlive()).isFalse();
+        assertThat(queue.take().getSourceDeviceId()).isEqualTo("R001");
+        assertThat(coalescer.getForwardedCount()).isEqualTo(1);
+        assertThat(coalescer.getLostCount()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Orchestrator with coalescing should report collapsed events")
+    void shouldReportCollapsedEvents() throws InterruptedException {
+        TelekomNetworkOrchestrator coalescing = new TelekomNetworkOrchestrator(
+            new PriorityLaneScheduler(100, EventIngestionQueue.OverloadPolicy.BLOCK),
+            Duration.ofMillis(50), NetworkEventType.STATUS_CHANGE);
+        Switch neighbour = new Switch("SW002");
+        Router flapping = new Router("R002");
+        coalescing.registerDevice(neighbour);
+        coalescing.registerDevice(flapping);
+        for (int i = 0; i < 100; i++) {
+            flapping.updateStatus(i % 2 == 0 ? "OFFLINE" : "ONLINE");
+        }
+        Thread.sleep(300);
+        
+        assertThat(neighbour.getEventProcessedCount()).isEqualTo(1);
+        assertThat(coalescing.getCollapsedEventCount()).isEqualTo(99);
+        coalescing.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Events of one device should be processed in order, never overlapping")
+    void shouldProcessEventsOfOneDeviceInOrder() throws InterruptedException {
+        TelekomNetworkOrchestrator ordered = new TelekomNetworkOrchestrator();
+        Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        Set<String> inProgress = ConcurrentHashMap.newKeySet();
+        AtomicInteger overlaps = new AtomicInteger();
+        ordered.registerDevice(new NetworkDevice("REC001", "MONITORING") {
+            @Override
+            public void onNetworkEvent(NetworkEvent event) {
+                if (!inProgress.add(event.getSourceDeviceId())) {
+                    overlaps.incrementAndGet();
+                }
+                received.computeIfAbsent(event.getSourceDeviceId(), id -> new CopyOnWriteArrayList<>())
+                    .add(Integer.parseInt(event.getDetails()));
+                inProgress.remove(event.getSourceDeviceId());
+            }
+        });
+        // Mixed priorities: a later, more important event of a device must not overtake an earlier one
+        for (int sequence = 0; sequence < 50; sequence++) {
+            for (int device = 0; device < 20; device++) {
+                ordered.notifyEvent(new NetworkEvent("SRC" + device, NetworkEventType.STATUS_CHANGE,
+                    String.valueOf(sequence), 5 - (sequence + device) % 5));
+            }
+        }
+        ordered.shutdown();
+        assertThat(ordered.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        
+        List<Integer> expected = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        assertThat(received).hasSize(20);
+        received.values().forEach(sequences -> assertThat(sequences).isEqualTo(expected));
+        assertThat(overlaps.get()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Keyed executor should run different keys in parallel")
+    void shouldRunDifferentKeysInParallel() throws InterruptedException {
+        KeyedEventExecutor executor = new KeyedEventExecutor(16, 16, "test-worker");
+        long start = System.nanoTime();
+        for (int task = 0; task < 10; task++) {
+            for (int key = 0; key < 8; key++) {
+                executor.execute("DEV" + key, () -> sleep(20));
+            }
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // 80 tasks of 20ms would take 1.6s one after another
+        assertThat(executor.getCompletedCount()).isEqualTo(80);
+        assertThat(elapsedMillis).isLessThan(1000);
+        assertThatThrownBy(() -> executor.execute("DEV0", () -> { }))
+            .isInstanceOf(IllegalStateException.class);
+    }
+    
     @Test
     @DisplayName("Topology change should notify routers and switches only")
     void shouldNotifyTopologyRelevantDevices() throws InterruptedException {
@@ -221,4 +576,25 @@ class MediatorPatternTest {
         // This verifies the mediator is properly routing events to devices
         assertThat(orchestrator.getProcessedEventCount()).isGreaterThan(0);
     }
+    
+    private static EventIngestionQueue fill(EventIngestionQueue.OverloadPolicy policy, int... priorities)
+            throws InterruptedException {
+        EventIngestionQueue queue = new EventIngestionQueue(priorities.length, policy);
+        for (int i = 0; i < priorities.length; i++) {
+            queue.offer(statusEvent("D" + i, priorities[i]));
+        }
+        return queue;
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static NetworkEvent statusEvent(String sourceDeviceId, int priority) {
+        return new NetworkEvent(sourceDeviceId, NetworkEventType.STATUS_CHANGE, "Status changed to: OFFLINE", priority);
+    }
 }
\ No newline at end of file